@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.assets;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Pack all images into a single indexed file, pre-decoded to raw ARGB.
+ * <p>
+ * Pack format (big endian):
+ * </p>
+ * <ul>
+ * <li>magic (int), version (short), entries count (int)</li>
+ * <li>for each entry: path (UTF), width (int), height (int), pixels offset (long)</li>
+ * <li>entries pixels, <code>width * height</code> ARGB each, offsets being relative to the end of the index</li>
+ * </ul>
+ * <p>
+ * Other resources are not packed, they are loaded from their own files.
+ * </p>
+ */
+public final class AssetPacker
+{
+    /** Pack magic number. */
+    private static final int MAGIC = 0x57_52_41_50;
+    /** Pack format version. */
+    private static final short VERSION = 2;
+    /** Packed image extension. */
+    private static final String IMAGE = ".png";
+
+    /**
+     * Check if file is a packed image.
+     * 
+     * @param file The file to check.
+     * @return <code>true</code> if image, <code>false</code> else.
+     */
+    private static boolean isImage(Path file)
+    {
+        return file.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(IMAGE);
+    }
+
+    /**
+     * Get image pixels as ARGB bytes.
+     * 
+     * @param image The image reference.
+     * @return The ARGB pixels.
+     */
+    private static byte[] toArgb(BufferedImage image)
+    {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+        final ByteBuffer buffer = ByteBuffer.allocate(argb.length * Integer.BYTES);
+        buffer.asIntBuffer().put(argb);
+        return buffer.array();
+    }
+
+    /**
+     * Main function.
+     * 
+     * @param args The resources folder, and the output pack file.
+     * @throws IOException If unable to pack resources.
+     * @throws LionEngineException If invalid arguments.
+     */
+    public static void main(String[] args) throws IOException // CHECKSTYLE IGNORE LINE: UncommentedMain
+    {
+        if (args.length != 2)
+        {
+            throw new LionEngineException("Usage: AssetPacker <resources> <pack>");
+        }
+        pack(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    /**
+     * Pack resources folder images.
+     * 
+     * @param root The resources folder.
+     * @param output The output pack file.
+     * @throws IOException If unable to pack resources.
+     * @throws LionEngineException If an image cannot be read.
+     */
+    public static void pack(Path root, Path output) throws IOException
+    {
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(root))
+        {
+            files = stream.filter(Files::isRegularFile)
+                          .filter(AssetPacker::isImage)
+                          .sorted()
+                          .collect(Collectors.toList());
+        }
+
+        final List<byte[]> data = new ArrayList<>(files.size());
+        final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(index))
+        {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(files.size());
+
+            long offset = 0L;
+            for (final Path file : files)
+            {
+                final String path = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                final BufferedImage image = ImageIO.read(file.toFile());
+                if (image == null)
+                {
+                    throw new LionEngineException("Unable to read image: " + file);
+                }
+                final byte[] content = toArgb(image);
+                out.writeUTF(path);
+                out.writeInt(image.getWidth());
+                out.writeInt(image.getHeight());
+                out.writeLong(offset);
+                data.add(content);
+                offset += content.length;
+            }
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output)))
+        {
+            index.writeTo(out);
+            for (final byte[] content : data)
+            {
+                out.write(content);
+            }
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private AssetPacker()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
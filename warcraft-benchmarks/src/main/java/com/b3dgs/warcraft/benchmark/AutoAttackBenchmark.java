@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.b3dgs.warcraft.object.feature.AutoAttack;
+
+/**
+ * Automatic target search benchmark, for all units at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AutoAttackBenchmark
+{
+    /**
+     * Create benchmark.
+     */
+    public AutoAttackBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Find target for each unit.
+     * 
+     * @param fixture The world fixture.
+     * @param blackhole The result consumer.
+     */
+    @Benchmark
+    public void findTarget(WorldFixture fixture, Blackhole blackhole)
+    {
+        for (final AutoAttack autoAttack : fixture.handler.get(AutoAttack.class))
+        {
+            blackhole.consume(autoAttack.findTarget());
+        }
+    }
+}
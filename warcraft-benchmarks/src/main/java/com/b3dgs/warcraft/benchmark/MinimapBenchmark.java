@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.world.WorldMinimap;
+
+/**
+ * Minimap rendering benchmark, on an offscreen buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MinimapBenchmark
+{
+    /**
+     * Loaded minimap and its output.
+     */
+    @State(Scope.Benchmark)
+    public static class MinimapState
+    {
+        /** Minimap reference. */
+        WorldMinimap minimap;
+        /** Output buffer. */
+        ImageBuffer buffer;
+        /** Output graphic. */
+        Graphic g;
+
+        /**
+         * Create state.
+         */
+        public MinimapState()
+        {
+            super();
+        }
+
+        /**
+         * Load minimap of current iteration world.
+         * 
+         * @param fixture The world fixture.
+         */
+        @Setup(Level.Iteration)
+        public void setup(WorldFixture fixture)
+        {
+            minimap = fixture.services.get(WorldMinimap.class);
+            minimap.load();
+
+            buffer = Graphics.createImageBuffer(Constant.NATIVE.getWidth(),
+                                                Constant.NATIVE.getHeight(),
+                                                ColorRgba.BLACK);
+            g = buffer.createGraphic();
+        }
+
+        /**
+         * Release resources.
+         */
+        @TearDown(Level.Iteration)
+        public void teardown()
+        {
+            g.dispose();
+            buffer.dispose();
+            minimap.dispose();
+        }
+    }
+
+    /**
+     * Create benchmark.
+     */
+    public MinimapBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Render minimap.
+     * 
+     * @param state The minimap state.
+     */
+    @Benchmark
+    public void render(MinimapState state)
+    {
+        state.minimap.render(state.g);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.warcraft.Race;
+import com.b3dgs.warcraft.world.Forest;
+import com.b3dgs.warcraft.world.WarehouseRegistry;
+
+/**
+ * Utility lookups benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class UtilBenchmark
+{
+    /**
+     * Create benchmark.
+     */
+    public UtilBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Find closest warehouse of each race.
+     * 
+     * @param fixture The world fixture.
+     * @param blackhole The result consumer.
+     */
+    @Benchmark
+    public void getWarehouse(WorldFixture fixture, Blackhole blackhole)
+    {
+        final WarehouseRegistry warehouses = fixture.services.get(WarehouseRegistry.class);
+        blackhole.consume(warehouses.getClosest(Race.ORC, fixture.unit));
+        blackhole.consume(warehouses.getClosest(Race.HUMAN, fixture.unit));
+    }
+
+    /**
+     * Reserve nearest free tree from forest index, then release it.
+     * 
+     * @param fixture The world fixture.
+     * @return The reserved tree.
+     */
+    @Benchmark
+    public Tile getNextTree(WorldFixture fixture)
+    {
+        final Forest forest = fixture.services.get(Forest.class);
+        final Tile tree = forest.next(fixture.unit);
+        forest.release(fixture.unit);
+        return tree;
+    }
+}
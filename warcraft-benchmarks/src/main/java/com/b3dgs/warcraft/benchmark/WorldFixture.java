@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.b3dgs.lionengine.Engine;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.audio.AudioFactory;
+import com.b3dgs.lionengine.audio.wav.WavFormat;
+import com.b3dgs.lionengine.awt.graphic.EngineAwt;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.Race;
+import com.b3dgs.warcraft.Simulation;
+import com.b3dgs.warcraft.Unit;
+import com.b3dgs.warcraft.World;
+import com.b3dgs.warcraft.constant.Constant;
+
+/**
+ * Headless world populated with the benchmarked amount of units.
+ * <p>
+ * Units are spawned on free ground tiles, as orc grunts and human footmen alternating by bands of rows, so searches
+ * find hostiles near band borders and scan their whole sight elsewhere. Forest map has less free ground tiles than the
+ * largest count, so tiles are reused in order once all taken, stacking units. World is rebuilt for each iteration, so
+ * iterations start from the same state even if units fight.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class WorldFixture
+{
+    private static final long SEED = 42L;
+    /** Rows per race band. */
+    private static final int BAND = 4;
+
+    /** Number of spawned units. */
+    @Param(
+    {
+        "10", "100", "1000", "5000"
+    }) public int count;
+
+    /** Simulation reference. */
+    Simulation simulation;
+    /** Services reference. */
+    Services services;
+    /** World reference. */
+    World world;
+    /** Handler reference. */
+    Handler handler;
+    /** Map reference. */
+    MapTile map;
+    /** Map path reference. */
+    MapTilePath mapPath;
+    /** First spawned unit. */
+    Pathfindable unit;
+
+    /**
+     * Create fixture.
+     */
+    public WorldFixture()
+    {
+        super();
+    }
+
+    /**
+     * Start engine.
+     */
+    @Setup(Level.Trial)
+    public void start()
+    {
+        System.setProperty("java.awt.headless", String.valueOf(true));
+        EngineAwt.start(Constant.PROGRAM_NAME, Constant.PROGRAM_VERSION, WorldFixture.class);
+        AudioFactory.addFormat(new WavFormat());
+    }
+
+    /**
+     * Load level and spawn units.
+     * 
+     * @throws LionEngineException If no free ground tile.
+     */
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        unit = null;
+        simulation = new Simulation(SEED);
+        simulation.load(com.b3dgs.warcraft.Level.FOREST);
+
+        services = simulation.getServices();
+        world = simulation.getWorld();
+        handler = services.get(Handler.class);
+        map = services.get(MapTile.class);
+        mapPath = map.getFeature(MapTilePath.class);
+
+        spawnUnits();
+        simulation.step();
+    }
+
+    /**
+     * Terminate engine.
+     */
+    @TearDown(Level.Trial)
+    public void teardown()
+    {
+        Engine.terminate();
+    }
+
+    /**
+     * Get all tiles of specified category.
+     * 
+     * @param category The category name.
+     * @return The found tiles.
+     */
+    List<Tile> getTiles(String category)
+    {
+        final List<Tile> tiles = new ArrayList<>();
+        for (int ty = 0; ty < map.getInTileHeight(); ty++)
+        {
+            for (int tx = 0; tx < map.getInTileWidth(); tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                if (tile != null && category.equals(mapPath.getCategory(tile)))
+                {
+                    tiles.add(tile);
+                }
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Spawn units on free ground tiles, alternating race by bands of rows.
+     * 
+     * @throws LionEngineException If no free ground tile.
+     */
+    private void spawnUnits()
+    {
+        final List<Tile> grounds = getTiles(Constant.CATEGORY_GROUND);
+        grounds.removeIf(tile -> mapPath.getObjectsId(tile.getInTileX(), tile.getInTileY())
+                                             .iterator()
+                                             .hasNext());
+        if (grounds.isEmpty())
+        {
+            throw new LionEngineException("No free ground tile");
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            final Tile tile = grounds.get(i % grounds.size());
+            final Media media;
+            if (tile.getInTileY() / BAND % 2 == 0)
+            {
+                media = Race.ORC.get(Unit.GRUNT);
+            }
+            else
+            {
+                media = Race.HUMAN.get(Unit.FOOTMAN);
+            }
+            final Featurable spawned = world.spawn(media, tile.getX(), tile.getY());
+            final Pathfindable pathfindable = spawned.getFeature(Pathfindable.class);
+            pathfindable.setLocation(tile.getInTileX(), tile.getInTileY());
+            if (unit == null)
+            {
+                unit = pathfindable;
+            }
+        }
+    }
+}
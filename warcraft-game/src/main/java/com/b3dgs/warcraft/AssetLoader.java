@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.warcraft.constant.Gfx;
+
+/**
+ * Load game graphics and sounds in parallel, on a worker pool.
+ * <p>
+ * Each resource is a task, so progress is the real number of loaded resources. Loading time scales with available
+ * cores instead of resources count.
+ * </p>
+ */
+public final class AssetLoader
+{
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+    /**
+     * Create loader for all graphics and sounds.
+     * 
+     * @param pack The assets pack.
+     */
+    public AssetLoader(AssetPack pack)
+    {
+        super();
+
+        for (final Gfx gfx : Gfx.values())
+        {
+            tasks.add(() -> gfx.load(pack));
+        }
+        for (final Sfx sfx : Sfx.values())
+        {
+            tasks.add(sfx::load);
+        }
+    }
+
+    /**
+     * Start loading on a worker pool. Workers stop once all resources are loaded.
+     */
+    public void start()
+    {
+        final int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable ->
+        {
+            final Thread thread = new Thread(runnable, AssetLoader.class.getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (final Runnable task : tasks)
+        {
+            executor.execute(() ->
+            {
+                try
+                {
+                    task.run();
+                }
+                catch (final RuntimeException exception)
+                {
+                    error.compareAndSet(null, exception);
+                }
+                loaded.incrementAndGet();
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Get loading progress.
+     * 
+     * @return The loaded resources percent.
+     */
+    public int getProgress()
+    {
+        return loaded.get() * com.b3dgs.lionengine.Constant.HUNDRED / tasks.size();
+    }
+
+    /**
+     * Check if all resources are loaded.
+     * 
+     * @return <code>true</code> if loaded, <code>false</code> else.
+     * @throws LionEngineException If a resource failed to load.
+     */
+    public boolean isLoaded()
+    {
+        if (loaded.get() < tasks.size())
+        {
+            return false;
+        }
+        final RuntimeException exception = error.get();
+        if (exception != null)
+        {
+            throw new LionEngineException(exception);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.warcraft.constant.Extension;
+
+/**
+ * Single memory mapped images pack, built by the assets module.
+ * <p>
+ * The pack indexes images by path, stored as pre-decoded ARGB pixels. Surfaces are filled straight from the mapped
+ * file, so no image is read or decoded on its own. The pack is not part of any jar, it is shipped next to the
+ * application jar. It is used only when available as a file, an empty pack is opened else and images are loaded one
+ * by one as before.
+ * </p>
+ */
+public final class AssetPack
+{
+    /** Pack file name. */
+    public static final String FILE = "assets" + Extension.PACK;
+
+    /** Pack magic number. */
+    private static final int MAGIC = 0x57_52_41_50;
+    /** Pack format version. */
+    private static final short VERSION = 2;
+    /** Error invalid pack. */
+    private static final String ERROR_PACK = "Invalid assets pack";
+
+    /**
+     * Read a modified UTF-8 string written by {@link java.io.DataOutput#writeUTF(String)}.
+     * 
+     * @param buffer The buffer to read from.
+     * @return The read string.
+     */
+    private static String readUtf(ByteBuffer buffer)
+    {
+        final int length = buffer.getShort() & 0xFFFF;
+        final char[] chars = new char[length];
+        int count = 0;
+        final int end = buffer.position() + length;
+        while (buffer.position() < end)
+        {
+            final int a = buffer.get() & 0xFF;
+            if (a < 0x80)
+            {
+                chars[count++] = (char) a;
+            }
+            else if ((a & 0xE0) == 0xC0)
+            {
+                chars[count++] = (char) ((a & 0x1F) << 6 | buffer.get() & 0x3F);
+            }
+            else
+            {
+                chars[count++] = (char) ((a & 0x0F) << 12 | (buffer.get() & 0x3F) << 6 | buffer.get() & 0x3F);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Get the pack file shipped next to the application jar (or classes folder).
+     * 
+     * @param media The pack media.
+     * @return The shipped pack file, <code>null</code> if unable to locate application.
+     */
+    private static File getShipped(Media media)
+    {
+        final CodeSource source = AssetPack.class.getProtectionDomain().getCodeSource();
+        if (source == null)
+        {
+            return null;
+        }
+        try
+        {
+            final File code = new File(source.getLocation().toURI());
+            return new File(code.getParentFile(), media.getName());
+        }
+        catch (final URISyntaxException | IllegalArgumentException exception)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Open pack, from media or else next to the application jar.
+     * 
+     * @param media The pack media.
+     * @return The opened pack, empty if not available as a file.
+     * @throws LionEngineException If invalid pack.
+     */
+    public static AssetPack open(Media media)
+    {
+        File file = media.getFile();
+        if (file == null || !file.isFile())
+        {
+            file = getShipped(media);
+        }
+        if (file == null || !file.isFile())
+        {
+            return new AssetPack(Collections.emptyMap(), ByteBuffer.allocate(0));
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION)
+            {
+                throw new LionEngineException(media, ERROR_PACK);
+            }
+            final int count = buffer.getInt();
+            final Map<String, Entry> entries = new HashMap<>(count);
+            for (int i = 0; i < count; i++)
+            {
+                final String path = readUtf(buffer);
+                final int width = buffer.getInt();
+                final int height = buffer.getInt();
+                entries.put(path, new Entry(width, height, buffer.getLong()));
+            }
+            return new AssetPack(entries, buffer.slice());
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, media);
+        }
+    }
+
+    private final Map<String, Entry> entries;
+    private final ByteBuffer data;
+
+    /**
+     * Create pack.
+     * 
+     * @param entries The entries by path.
+     * @param data The entries data.
+     */
+    private AssetPack(Map<String, Entry> entries, ByteBuffer data)
+    {
+        super();
+
+        this.entries = entries;
+        this.data = data;
+    }
+
+    /**
+     * Get packed image surface, filled from its mapped pre-decoded pixels.
+     * 
+     * @param media The image media.
+     * @return The image surface, <code>null</code> if not packed.
+     */
+    public ImageBuffer getImage(Media media)
+    {
+        final Entry entry = entries.get(media.getPath());
+        if (entry == null)
+        {
+            return null;
+        }
+        final IntBuffer argb = data.slice((int) entry.offset, entry.width * entry.height * Integer.BYTES)
+                                   .asIntBuffer();
+
+        final ImageBuffer image = Graphics.createImageBuffer(entry.width, entry.height, ColorRgba.TRANSPARENT);
+        for (int y = 0; y < entry.height; y++)
+        {
+            for (int x = 0; x < entry.width; x++)
+            {
+                image.setRgb(x, y, argb.get());
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Pack entry.
+     */
+    private static final class Entry
+    {
+        /** Image width. */
+        private final int width;
+        /** Image height. */
+        private final int height;
+        /** Pixels offset. */
+        private final long offset;
+
+        /**
+         * Create entry.
+         * 
+         * @param width The image width.
+         * @param height The image height.
+         * @param offset The pixels offset.
+         */
+        Entry(int width, int height, long offset)
+        {
+            super();
+
+            this.width = width;
+            this.height = height;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Config;
+import com.b3dgs.lionengine.Context;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Resolution;
+import com.b3dgs.lionengine.io.InputDevice;
+
+/**
+ * Context without any display or input device, used by headless simulation.
+ */
+final class ContextHeadless implements Context
+{
+    private static final String ERROR_INPUT = "No input device in headless context: ";
+
+    private final Config config;
+
+    /**
+     * Create context.
+     * 
+     * @param resolution The simulated resolution (must not be <code>null</code>).
+     * @throws LionEngineException If invalid argument.
+     */
+    ContextHeadless(Resolution resolution)
+    {
+        super();
+
+        Check.notNull(resolution);
+
+        config = Config.windowed(resolution);
+    }
+
+    @Override
+    public int getX()
+    {
+        return 0;
+    }
+
+    @Override
+    public int getY()
+    {
+        return 0;
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return config.getOutput().getWidth();
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return config.getOutput().getHeight();
+    }
+
+    @Override
+    public int getRate()
+    {
+        return config.getOutput().getRate();
+    }
+
+    @Override
+    public Config getConfig()
+    {
+        return config;
+    }
+
+    /**
+     * {@inheritDoc} Always fails as there is no input device.
+     * 
+     * @throws LionEngineException Always.
+     */
+    @Override
+    public <T extends InputDevice> T getInputDevice(Class<T> type)
+    {
+        throw new LionEngineException(ERROR_INPUT + type.getName());
+    }
+}
@@ -17,26 +17,32 @@
 package com.b3dgs.warcraft;
 
 import com.b3dgs.lionengine.Context;
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Medias;
 import com.b3dgs.lionengine.Origin;
+import com.b3dgs.lionengine.game.Bar;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.Image;
 import com.b3dgs.lionengine.graphic.engine.Sequence;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.constant.Folder;
-import com.b3dgs.warcraft.constant.Gfx;
 
 /**
- * Loading screen.
+ * Loading screen, displaying resources loading progress.
  */
 public final class Loading extends Sequence
 {
     private static final String IMG_LOADING = "blizzard.png";
+    private static final int BAR_WIDTH = 100;
+    private static final int BAR_HEIGHT = 2;
+    private static final int BAR_MARGIN = 12;
 
     private final Image background = Drawable.loadImage(Medias.create(Folder.MENU, IMG_LOADING));
+    private final Bar bar = new Bar(BAR_WIDTH, BAR_HEIGHT);
+    private final Media replay;
 
-    private boolean loaded;
+    private AssetLoader loader;
 
     /**
      * Constructor.
@@ -44,9 +50,22 @@ public final class Loading extends Sequence
      * @param context The context reference.
      */
     public Loading(Context context)
+    {
+        this(context, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param context The context reference.
+     * @param replay The played commands destination, <code>null</code> to not save them.
+     */
+    public Loading(Context context, Media replay)
     {
         super(context, Constant.NATIVE);
 
+        this.replay = replay;
+
         setSystemCursorVisible(false);
     }
 
@@ -57,32 +76,44 @@ public final class Loading extends Sequence
         background.prepare();
         background.setOrigin(Origin.MIDDLE);
         background.setLocation(getWidth() / 2.0, getHeight() / 2.0);
+
+        bar.setLocation((getWidth() - BAR_WIDTH) / 2, getHeight() - BAR_MARGIN);
+        bar.setWidthPercent(0);
+        bar.setHeightPercent(com.b3dgs.lionengine.Constant.HUNDRED);
+        bar.setColorForeground(Constant.COLOR_HEALTH_GOOD);
+
+        loader = new AssetLoader(AssetPack.open(Medias.create(AssetPack.FILE)));
+        loader.start();
     }
 
     @Override
     public void update(double extrp)
     {
-        if (loaded)
+        bar.setWidthPercent(loader.getProgress());
+        if (loader.isLoaded())
         {
-            for (final Gfx gfx : Gfx.values())
+            if (replay == null)
+            {
+                end(Scene.class);
+            }
+            else
             {
-                gfx.get().load();
+                end(Scene.class, replay);
             }
-            end(Scene.class);
         }
-        loaded = true;
     }
 
     @Override
     public void render(Graphic g)
     {
         background.render(g);
+        bar.render(g);
     }
 
     @Override
     public void onTerminated(boolean hasNextSequence)
     {
         background.dispose();
-        loaded = false;
+        loader = null;
     }
 }
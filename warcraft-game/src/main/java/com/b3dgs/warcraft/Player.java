@@ -16,6 +16,8 @@
  */
 package com.b3dgs.warcraft;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -120,6 +122,30 @@ public final class Player implements Updatable
         unlocked.addAll(unlock);
     }
 
+    /**
+     * Restore player stats, without resource curve.
+     * 
+     * @param woodValue The wood resource.
+     * @param goldValue The gold resource.
+     * @param food The available food.
+     * @param consumedFood The consumed food.
+     * @param unlock The unlocked elements.
+     */
+    public void restore(int woodValue, int goldValue, int food, int consumedFood, Collection<String> unlock)
+    {
+        wood.set(woodValue);
+        gold.set(goldValue);
+        available.set(food);
+        consumed.set(consumedFood);
+        unlocked.clear();
+        unlocked.addAll(unlock);
+
+        currentWood = wood.getCurrent();
+        currentGold = gold.getCurrent();
+        updaterWood = UpdatableVoid.getInstance();
+        updaterGold = UpdatableVoid.getInstance();
+    }
+
     /**
      * Increase resource.
      * 
@@ -193,6 +219,35 @@ public final class Player implements Updatable
         return consumed.getCurrent();
     }
 
+    /**
+     * Get resource stock, without display curve.
+     * 
+     * @param type The resource type.
+     * @return The resource stock, <code>0</code> if unknown type.
+     */
+    public int getResource(String type)
+    {
+        if (Constant.RESOURCE_WOOD.equals(type))
+        {
+            return wood.getCurrent();
+        }
+        else if (Constant.RESOURCE_GOLD.equals(type))
+        {
+            return gold.getCurrent();
+        }
+        return 0;
+    }
+
+    /**
+     * Get unlocked elements.
+     * 
+     * @return The unlocked elements.
+     */
+    public Set<String> getUnlocked()
+    {
+        return Collections.unmodifiableSet(unlocked);
+    }
+
     /**
      * Get current wood resource.
      * 
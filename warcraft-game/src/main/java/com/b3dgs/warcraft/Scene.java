@@ -18,6 +18,7 @@ package com.b3dgs.warcraft;
 
 import com.b3dgs.lionengine.Align;
 import com.b3dgs.lionengine.Context;
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.game.feature.SequenceGame;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
@@ -28,6 +29,9 @@ import com.b3dgs.warcraft.constant.Constant;
 
 /**
  * Game scene implementation.
+ * <p>
+ * Played commands are saved on exit only if a replay destination has been given.
+ * </p>
  */
 public class Scene extends SequenceGame<World>
 {
@@ -58,16 +62,30 @@ public class Scene extends SequenceGame<World>
     private final Text textName = Graphics.createText(9);
     private final Text textEngine = Graphics.createText(9);
     private final Level level = Level.FOREST;
+    private final Media replay;
 
     /**
-     * Create the scene.
+     * Create the scene, without saving played commands.
      * 
      * @param context The context reference.
      */
     public Scene(Context context)
+    {
+        this(context, null);
+    }
+
+    /**
+     * Create the scene.
+     * 
+     * @param context The context reference.
+     * @param replay The played commands destination, <code>null</code> to not save them.
+     */
+    public Scene(Context context, Media replay)
     {
         super(context, Constant.NATIVE, World::new);
 
+        this.replay = replay;
+
         setText(textEngine, ENGINE, 72, getHeight() - textEngine.getSize() - 11, Align.LEFT);
         setText(textName, NAME, getWidth() - 8, getHeight() - textName.getSize() - 11, Align.RIGHT);
     }
@@ -82,6 +100,18 @@ public class Scene extends SequenceGame<World>
         world.loadFromFile(level.getFile());
     }
 
+    @Override
+    public void onTerminated(boolean hasNextSequence)
+    {
+        super.onTerminated(hasNextSequence);
+
+        if (replay != null)
+        {
+            world.saveReplay(replay);
+        }
+        world.dispose();
+    }
+
     @Override
     public void render(Graphic g)
     {
@@ -25,11 +25,9 @@ import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Medias;
-import com.b3dgs.lionengine.UtilRandom;
-import com.b3dgs.lionengine.Verbose;
 import com.b3dgs.lionengine.audio.Audio;
 import com.b3dgs.lionengine.audio.AudioFactory;
-import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.Configurer;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.constant.Extension;
 import com.b3dgs.warcraft.constant.Folder;
@@ -37,7 +35,8 @@ import com.b3dgs.warcraft.constant.Folder;
 /**
  * List of available sounds fx.
  * <p>
- * Sound file name is enum name in lower case in enum race name in lower case folder.
+ * Sound file name is enum name in lower case in enum race name in lower case folder. Audio is not loaded with the
+ * enum, but by {@link #load()}, so sounds can be loaded in parallel. A sound played before being loaded is ignored.
  * </p>
  */
 public enum Sfx
@@ -115,48 +114,47 @@ public enum Sfx
 
     /** Node sfx name. */
     public static final String NODE_SFX = "sfx";
+    /** Started attribute name. */
+    public static final String ATT_STARTED = "started";
+    /** Produced attribute name. */
+    public static final String ATT_PRODUCED = "produced";
+    /** Selected attribute name. */
+    public static final String ATT_SELECTED = "selected";
+    /** Ordered attribute name. */
+    public static final String ATT_ORDERED = "ordered";
+    /** Attacked attribute name. */
+    public static final String ATT_ATTACKED = "attacked";
     /** Dead attribute name. */
     public static final String ATT_DEAD = "dead";
 
+    /** Enabled flag. */
+    private static volatile boolean enabled = true;
+
     /**
-     * Cache sfx.
+     * Enable or disable sfx playback. Disabled sfx are silently ignored when played.
+     * 
+     * @param enabled <code>true</code> to play sfx, <code>false</code> to ignore them.
      */
-    public static void cache()
+    public static void setEnabled(boolean enabled)
     {
-        for (final Sfx sfx : Sfx.values())
-        {
-            sfx.audio.setVolume(0);
-            sfx.play();
-        }
-        try
-        {
-            Thread.sleep(com.b3dgs.lionengine.Constant.HUNDRED / 2);
-        }
-        catch (final InterruptedException exception)
-        {
-            Verbose.exception(exception);
-        }
-        for (final Sfx sfx : Sfx.values())
-        {
-            sfx.audio.stop();
-        }
+        Sfx.enabled = enabled;
     }
 
     /**
      * Load sfx.
      * 
-     * @param setup The setup reference.
+     * @param configurer The configurer reference.
      * @param attribute The attribute name.
      * @return The loaded sfx, <code>null</code> if none.
      * @throws LionEngineException If invalid configuration.
      */
-    public static List<Sfx> load(Setup setup, String attribute)
+    public static List<Sfx> load(Configurer configurer, String attribute)
     {
-        if (setup.hasNode(NODE_SFX))
+        if (configurer.hasNode(NODE_SFX))
         {
-            if (setup.getRoot().getChild(NODE_SFX).hasAttribute(attribute))
+            if (configurer.getRoot().getChild(NODE_SFX).hasAttribute(attribute))
             {
-                final String[] attributes = setup.getString(attribute, NODE_SFX).split(Constant.SFX_SEPARATOR);
+                final String[] attributes = configurer.getString(attribute, NODE_SFX).split(Constant.SFX_SEPARATOR);
                 final List<Sfx> sfx = new ArrayList<>();
                 for (final String current : attributes)
                 {
@@ -168,22 +166,10 @@ public enum Sfx
         return Collections.emptyList();
     }
 
-    /**
-     * Play a random sound.
-     * 
-     * @param sfx The random sounds.
-     */
-    public static void playRandom(List<Sfx> sfx)
-    {
-        if (!sfx.isEmpty())
-        {
-            final int id = UtilRandom.getRandomInteger(sfx.size() - 1);
-            sfx.get(id).play();
-        }
-    }
-
-    /** Audio handler. */
-    private final Audio audio;
+    /** Associated media. */
+    private final Media media;
+    /** Audio handler, <code>null</code> until loaded. */
+    private volatile Audio audio;
 
     /**
      * Create Sfx.
@@ -198,16 +184,52 @@ public enum Sfx
         final String folder = race.name().toLowerCase(Locale.ENGLISH);
         final String file = name().toLowerCase(Locale.ENGLISH) + Extension.SFX;
         final String name = file.substring(file.indexOf(com.b3dgs.lionengine.Constant.UNDERSCORE) + 1);
-        final Media media = Medias.create(Folder.SOUNDS, folder, name);
+        media = Medias.create(Folder.SOUNDS, folder, name);
+    }
+
+    /**
+     * Load audio. Can be called from any thread.
+     * 
+     * @throws LionEngineException If unable to load audio.
+     */
+    public void load()
+    {
         audio = AudioFactory.loadAudio(media);
     }
 
     /**
-     * Play sound.
+     * Play sound at default volume.
      */
     public void play()
     {
-        audio.setVolume(Constant.VOLUME_DEFAULT);
-        audio.play();
+        play(Constant.VOLUME_DEFAULT);
+    }
+
+    /**
+     * Play sound. Prefer {@link SfxMixer} in game, which limits the number of sounds played at once.
+     * 
+     * @param volume The sound volume.
+     */
+    public void play(int volume)
+    {
+        final Audio current = audio;
+        if (!enabled || current == null)
+        {
+            return;
+        }
+        current.setVolume(volume);
+        current.play();
+    }
+
+    /**
+     * Stop sound.
+     */
+    public void stop()
+    {
+        final Audio current = audio;
+        if (current != null)
+        {
+            current.stop();
+        }
     }
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.util.List;
+import java.util.Random;
+
+import com.b3dgs.lionengine.Localizable;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.Viewer;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.constant.Constant;
+
+/**
+ * Sfx voices manager.
+ * <p>
+ * Sounds are not played when requested, but once per tick on update. Requests of the same sound in a tick are
+ * coalesced into one, keeping the loudest. Located sounds are attenuated by their distance to the view center. A
+ * limited number of voices are played at once: when all are busy, a request steals the lowest priority voice if it is
+ * louder, or is dropped. Sounds without location have the highest priority.
+ * </p>
+ * <p>
+ * A disabled mixer drops all requests, muting its world only.
+ * </p>
+ */
+public class SfxMixer implements Updatable
+{
+    /** Maximum number of voices played at once. */
+    private static final int VOICES = 8;
+    /** Number of ticks a voice is considered busy. */
+    private static final int VOICE_TICKS = 30;
+    /** Volume percent kept at view border. */
+    private static final int ATTENUATION_MIN = 40;
+    /** Sounds without location priority. */
+    private static final int PRIORITY_INTERFACE = Constant.VOLUME_DEFAULT + 1;
+
+    /** Sfx choice random, separated from game random to keep simulation deterministic. */
+    private final Random random = new Random();
+    private final Sfx[] sounds = Sfx.values();
+    private final int[] requestVolume = new int[sounds.length];
+    private final int[] requestPriority = new int[sounds.length];
+    private final int[] requests = new int[sounds.length];
+    private final Sfx[] voiceSfx = new Sfx[VOICES];
+    private final int[] voicePriority = new int[VOICES];
+    private final int[] voiceEnd = new int[VOICES];
+    private final Viewer viewer;
+
+    private int requestsCount;
+    private int tick;
+    private boolean enabled = true;
+
+    /**
+     * Create mixer.
+     * 
+     * @param services The services reference.
+     */
+    public SfxMixer(Services services)
+    {
+        super();
+
+        viewer = services.get(Viewer.class);
+    }
+
+    /**
+     * Set enabled flag. Requests are dropped when disabled.
+     * 
+     * @param enabled <code>true</code> to play requested sounds, <code>false</code> to drop them.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Request sound without location, at default volume and highest priority.
+     * 
+     * @param sfx The sound to play.
+     */
+    public void play(Sfx sfx)
+    {
+        request(sfx, Constant.VOLUME_DEFAULT, PRIORITY_INTERFACE);
+    }
+
+    /**
+     * Request sound attenuated by its distance to view center.
+     * 
+     * @param sfx The sound to play.
+     * @param source The sound location.
+     */
+    public void play(Sfx sfx, Localizable source)
+    {
+        final double halfWidth = viewer.getWidth() / 2.0;
+        final double halfHeight = viewer.getHeight() / 2.0;
+        final double dx = source.getX() - (viewer.getX() + halfWidth);
+        final double dy = source.getY() - (viewer.getY() + halfHeight);
+        final double max = halfWidth * halfWidth + halfHeight * halfHeight;
+        final double ratio = Math.min(1.0, Math.sqrt((dx * dx + dy * dy) / max));
+        final double percent = 1.0 - (1.0 - ATTENUATION_MIN / 100.0) * ratio;
+        final int volume = (int) Math.round(Constant.VOLUME_DEFAULT * percent);
+        request(sfx, volume, volume);
+    }
+
+    /**
+     * Request a random sound without location.
+     * 
+     * @param sfx The random sounds.
+     */
+    public void playRandom(List<Sfx> sfx)
+    {
+        if (!sfx.isEmpty())
+        {
+            play(sfx.get(random.nextInt(sfx.size())));
+        }
+    }
+
+    /**
+     * Request a random sound attenuated by its distance to view center.
+     * 
+     * @param sfx The random sounds.
+     * @param source The sound location.
+     */
+    public void playRandom(List<Sfx> sfx, Localizable source)
+    {
+        if (!sfx.isEmpty())
+        {
+            play(sfx.get(random.nextInt(sfx.size())), source);
+        }
+    }
+
+    /**
+     * Store request, coalesced with previous request of the same sound.
+     * 
+     * @param sfx The sound to play.
+     * @param volume The sound volume.
+     * @param priority The sound priority.
+     */
+    private void request(Sfx sfx, int volume, int priority)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        final int index = sfx.ordinal();
+        if (requestPriority[index] == 0)
+        {
+            requests[requestsCount] = index;
+            requestsCount++;
+        }
+        requestVolume[index] = Math.max(requestVolume[index], volume);
+        requestPriority[index] = Math.max(requestPriority[index], priority);
+    }
+
+    /**
+     * Sort requests by descending priority, so most important sounds get voices first.
+     */
+    private void sortRequests()
+    {
+        for (int i = 1; i < requestsCount; i++)
+        {
+            final int current = requests[i];
+            int j = i - 1;
+            while (j >= 0 && requestPriority[requests[j]] < requestPriority[current])
+            {
+                requests[j + 1] = requests[j];
+                j--;
+            }
+            requests[j + 1] = current;
+        }
+    }
+
+    /**
+     * Find voice for sound: the one already playing it, else a free one, else the lowest priority one.
+     * 
+     * @param sfx The sound to play.
+     * @return The voice index.
+     */
+    private int findVoice(Sfx sfx)
+    {
+        int lowest = 0;
+        for (int i = 0; i < VOICES; i++)
+        {
+            if (voiceSfx[i] == sfx)
+            {
+                return i;
+            }
+            if (voiceEnd[i] <= tick)
+            {
+                voiceSfx[i] = null;
+                voicePriority[i] = 0;
+            }
+            if (voicePriority[i] < voicePriority[lowest])
+            {
+                lowest = i;
+            }
+        }
+        return lowest;
+    }
+
+    /*
+     * Updatable
+     */
+
+    @Override
+    public void update(double extrp)
+    {
+        tick++;
+        sortRequests();
+        for (int i = 0; i < requestsCount; i++)
+        {
+            final int index = requests[i];
+            final Sfx sfx = sounds[index];
+            final int voice = findVoice(sfx);
+            final int priority = requestPriority[index];
+
+            if (voiceSfx[voice] == sfx || voicePriority[voice] < priority)
+            {
+                if (voiceSfx[voice] != null && voiceSfx[voice] != sfx)
+                {
+                    voiceSfx[voice].stop();
+                }
+                voiceSfx[voice] = sfx;
+                voicePriority[voice] = priority;
+                voiceEnd[voice] = tick + VOICE_TICKS;
+                sfx.play(requestVolume[index]);
+            }
+            requestVolume[index] = 0;
+            requestPriority[index] = 0;
+        }
+        requestsCount = 0;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.attackable.Attacker;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.helper.MapTileHelper;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.constant.Gfx;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.world.Commands;
+
+/**
+ * Headless world simulation, updated at a fixed step as fast as possible.
+ * <p>
+ * The world is created without input device, audio and rendering, so it can run on machines without display. Each
+ * step is one frame at native rate, which keeps the simulation deterministic for a given seed.
+ * </p>
+ * <p>
+ * Determinism can be checked by comparing {@link #getStateHash()} after recording some frames, and after replaying
+ * the recorded commands for the same number of frames in another simulation. Entities are identified by their replay
+ * id, which does not depend on simulations run before in the process.
+ * </p>
+ */
+public final class Simulation
+{
+    /** Fixed extrapolation step (one frame at native rate). */
+    public static final double STEP = 1.0;
+    /** Hash offset basis (FNV-1a). */
+    private static final long HASH_OFFSET = 0xCBF2_9CE4_8422_2325L;
+    /** Hash prime (FNV-1a). */
+    private static final long HASH_PRIME = 0x100_0000_01B3L;
+    /** No tile value. */
+    private static final int NONE = -1;
+
+    /**
+     * Mix value in hash.
+     * 
+     * @param hash The current hash.
+     * @param value The value to mix.
+     * @return The new hash.
+     */
+    private static long mix(long hash, long value)
+    {
+        return (hash ^ value) * HASH_PRIME;
+    }
+
+    private final Services services = new Services();
+    private final World world;
+    private long frames;
+
+    /**
+     * Create simulation. Graphic and audio factories must have been set, but no display is required.
+     * 
+     * @param seed The random seed.
+     * @throws LionEngineException If unable to create world.
+     */
+    public Simulation(long seed)
+    {
+        super();
+
+        final AssetPack pack = AssetPack.open(Medias.create(AssetPack.FILE));
+        for (final Gfx gfx : Gfx.values())
+        {
+            gfx.load(pack);
+        }
+
+        services.add(new ContextHeadless(Constant.NATIVE));
+        world = new World(services, true);
+        world.setSeed(seed);
+    }
+
+    /**
+     * Load level.
+     * 
+     * @param level The level to load (must not be <code>null</code>).
+     * @throws LionEngineException If invalid argument or unable to load level.
+     */
+    public void load(Level level)
+    {
+        Check.notNull(level);
+
+        if (!level.getFile().exists())
+        {
+            MapTileHelper.importAndSave(level.getRip(), level.getFile());
+        }
+        world.loadFromFile(level.getFile());
+    }
+
+    /**
+     * Load level and restore match from snapshot, to fork a simulation from a saved position.
+     * 
+     * @param level The level to load (must not be <code>null</code>).
+     * @param snapshot The match snapshot (must not be <code>null</code>).
+     * @throws LionEngineException If invalid arguments or unable to load level or snapshot.
+     */
+    public void load(Level level, Media snapshot)
+    {
+        Check.notNull(level);
+        Check.notNull(snapshot);
+
+        if (!level.getFile().exists())
+        {
+            MapTileHelper.importAndSave(level.getRip(), level.getFile());
+        }
+        world.loadFromSnapshot(level.getFile(), snapshot);
+    }
+
+    /**
+     * Load level and replay recorded commands, seeded with recorded seed.
+     * 
+     * @param level The level to load (must not be <code>null</code>).
+     * @param replay The commands log (must not be <code>null</code>).
+     * @throws LionEngineException If invalid arguments or unable to load level or commands log.
+     */
+    public void replay(Level level, Media replay)
+    {
+        Check.notNull(level);
+        Check.notNull(replay);
+
+        if (!level.getFile().exists())
+        {
+            MapTileHelper.importAndSave(level.getRip(), level.getFile());
+        }
+        world.loadReplay(level.getFile(), replay);
+    }
+
+    /**
+     * Save recorded commands.
+     * 
+     * @param replay The commands log destination (must not be <code>null</code>).
+     * @throws LionEngineException If invalid argument or unable to save commands log.
+     */
+    public void saveReplay(Media replay)
+    {
+        Check.notNull(replay);
+
+        world.saveReplay(replay);
+    }
+
+    /**
+     * Save current match to snapshot.
+     * 
+     * @param snapshot The snapshot destination (must not be <code>null</code>).
+     * @throws LionEngineException If invalid argument or unable to save snapshot.
+     */
+    public void save(Media snapshot)
+    {
+        Check.notNull(snapshot);
+
+        world.saveSnapshot(snapshot);
+    }
+
+    /**
+     * Run simulation for the specified number of frames.
+     * 
+     * @param count The number of frames to simulate (must be superior or equal to 0).
+     * @throws LionEngineException If invalid argument.
+     */
+    public void run(int count)
+    {
+        Check.superiorOrEqual(count, 0);
+
+        for (int i = 0; i < count; i++)
+        {
+            step();
+        }
+    }
+
+    /**
+     * Update world by one fixed step.
+     */
+    public void step()
+    {
+        world.update(STEP);
+        frames++;
+    }
+
+    /**
+     * Get the number of simulated frames.
+     * 
+     * @return The simulated frames.
+     */
+    public long getFrames()
+    {
+        return frames;
+    }
+
+    /**
+     * Get the simulation state hash: map tiles, player resources and entities, ordered by replay id. Two runs with the
+     * same hash after the same number of frames reached the same state.
+     * 
+     * @return The state hash.
+     */
+    public long getStateHash()
+    {
+        long hash = HASH_OFFSET;
+
+        final MapTile map = services.get(MapTile.class);
+        for (int ty = 0; ty < map.getInTileHeight(); ty++)
+        {
+            for (int tx = 0; tx < map.getInTileWidth(); tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                hash = mix(hash, tile == null ? NONE : tile.getNumber());
+            }
+        }
+
+        final Player player = services.get(Player.class);
+        hash = mix(hash, player.getWood());
+        hash = mix(hash, player.getGold());
+        hash = mix(hash, player.getAvailableFood());
+        hash = mix(hash, player.getConsumedFood());
+
+        final Commands commands = services.get(Commands.class);
+        final List<EntityModel> models = new ArrayList<>();
+        for (final EntityModel model : services.get(Handler.class).get(EntityModel.class))
+        {
+            models.add(model);
+        }
+        models.sort(Comparator.comparingInt(commands::getReplayId));
+
+        for (final EntityModel model : models)
+        {
+            final Transformable transformable = model.getFeature(Transformable.class);
+            hash = mix(hash, commands.getReplayId(model));
+            hash = mix(hash, Double.doubleToLongBits(transformable.getX()));
+            hash = mix(hash, Double.doubleToLongBits(transformable.getY()));
+            hash = mix(hash, model.getFeature(EntityStats.class).getHealth());
+            hash = mix(hash, Objects.hashCode(model.getCarryResource()));
+            hash = mix(hash, Objects.hashCode(model.getResourceType()));
+            hash = mix(hash, commands.getReplayId(model.getFeature(Attacker.class).getTarget()));
+            hash = mix(hash, model.getProductionQueue().size());
+        }
+        return hash;
+    }
+
+    /**
+     * Get the simulated world.
+     * 
+     * @return The world reference.
+     */
+    public World getWorld()
+    {
+        return world;
+    }
+
+    /**
+     * Get the simulation services.
+     * 
+     * @return The services reference.
+     */
+    public Services getServices()
+    {
+        return services;
+    }
+}
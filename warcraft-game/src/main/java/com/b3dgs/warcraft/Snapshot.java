@@ -0,0 +1,601 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.Tiled;
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.Factory;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.attackable.Attacker;
+import com.b3dgs.lionengine.game.feature.producible.Producible;
+import com.b3dgs.lionengine.game.feature.state.State;
+import com.b3dgs.lionengine.game.feature.state.StateHandler;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractable;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.geom.Geom;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.feature.Buildable;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.state.StateDead;
+import com.b3dgs.warcraft.object.state.StateDeadGold;
+import com.b3dgs.warcraft.object.state.StateDeadWood;
+import com.b3dgs.warcraft.object.state.StateIdle;
+
+/**
+ * Binary match snapshot.
+ * <p>
+ * Format is big endian, starting with {@link #MAGIC} and {@link #VERSION}, followed by length prefixed sections:
+ * </p>
+ * <ul>
+ * <li>world: camera location, player resources, food and unlocked elements,</li>
+ * <li>map: tile numbers, including cut trees and their transitions,</li>
+ * <li>entities: unit, location, health, visibility, settled state, extraction, carried resource, remaining resource
+ * quantity, attack target and production queue.</li>
+ * </ul>
+ * <p>
+ * Snapshot is read from a memory mapped file. Entities in production are stored in their producer queue, and restart
+ * their production from start on load. Queued buildings are restored as build orders, sending the worker back to the
+ * building area. Carried resource is restored as a full load going to closest warehouse. Transient states (moves,
+ * attacks, extraction steps) are rebuilt by state transitions from restored features.
+ * </p>
+ * <p>
+ * Strings are stored as unsigned short length followed by UTF-8 bytes.
+ * </p>
+ */
+final class Snapshot
+{
+    /** Snapshot magic number. */
+    private static final int MAGIC = 0x57_52_53_4E;
+    /** Snapshot format version. */
+    private static final short VERSION = 2;
+    /** No reference value. */
+    private static final int NONE = -1;
+    /** Settled states which can be restored directly. */
+    private static final List<Class<? extends State>> STATES = Arrays.asList(StateIdle.class,
+                                                                             StateDead.class,
+                                                                             StateDeadGold.class,
+                                                                             StateDeadWood.class);
+    /** Error invalid snapshot. */
+    private static final String ERROR_SNAPSHOT = "Invalid snapshot: ";
+
+    /**
+     * Save match to snapshot.
+     * 
+     * @param services The services reference.
+     * @param media The snapshot destination.
+     * @throws LionEngineException If unable to save snapshot.
+     */
+    static void save(Services services, Media media)
+    {
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(media.getFile().toPath()));
+             DataOutputStream out = new DataOutputStream(output))
+        {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeSection(out, section -> writeWorld(services, section));
+            writeSection(out, section -> writeMap(services.get(MapTile.class), section));
+            writeSection(out, section -> writeEntities(services.get(Handler.class), section));
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, media);
+        }
+    }
+
+    /**
+     * Load match from snapshot. Map must have been loaded.
+     * 
+     * @param world The world reference.
+     * @param services The services reference.
+     * @param media The snapshot source.
+     * @return The spawned entities.
+     * @throws IOException If unable to read snapshot.
+     * @throws LionEngineException If invalid snapshot.
+     */
+    static List<Transformable> load(World world, Services services, Media media) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(media.getFile().toPath(), StandardOpenOption.READ))
+        {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < Integer.BYTES + Short.BYTES
+                || buffer.getInt() != MAGIC
+                || buffer.getShort() != VERSION)
+            {
+                throw new LionEngineException(media, ERROR_SNAPSHOT + "unsupported format");
+            }
+            readWorld(services, readSection(buffer));
+            readMap(services.get(MapTile.class), readSection(buffer), media);
+            return readEntities(world, services, readSection(buffer));
+        }
+    }
+
+    /**
+     * Write a length prefixed section.
+     * 
+     * @param out The output stream.
+     * @param writer The section writer.
+     * @throws IOException If error.
+     */
+    private static void writeSection(DataOutputStream out, SectionWriter writer) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream section = new DataOutputStream(bytes);
+        writer.write(section);
+        section.flush();
+
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    /**
+     * Read a length prefixed section, and skip it in buffer.
+     * 
+     * @param buffer The snapshot buffer.
+     * @return The section buffer.
+     */
+    private static ByteBuffer readSection(ByteBuffer buffer)
+    {
+        final int length = buffer.getInt();
+        final ByteBuffer section = buffer.slice();
+        section.limit(length);
+        buffer.position(buffer.position() + length);
+        return section;
+    }
+
+    /**
+     * Write string as length prefixed UTF-8 bytes.
+     * 
+     * @param out The output stream.
+     * @param value The string to write.
+     * @throws IOException If error.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read string written with {@link #writeString(DataOutputStream, String)}.
+     * 
+     * @param buffer The buffer source.
+     * @return The read string.
+     */
+    private static String readString(ByteBuffer buffer)
+    {
+        final byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write world data.
+     * 
+     * @param services The services reference.
+     * @param out The output stream.
+     * @throws IOException If error.
+     */
+    private static void writeWorld(Services services, DataOutputStream out) throws IOException
+    {
+        final Camera camera = services.get(Camera.class);
+        out.writeDouble(camera.getX());
+        out.writeDouble(camera.getY());
+
+        final Player player = services.get(Player.class);
+        out.writeInt(player.getResource(Constant.RESOURCE_WOOD));
+        out.writeInt(player.getResource(Constant.RESOURCE_GOLD));
+        out.writeInt(player.getAvailableFood());
+        out.writeInt(player.getConsumedFood());
+
+        final Collection<String> unlocked = player.getUnlocked();
+        out.writeShort(unlocked.size());
+        for (final String unlock : unlocked)
+        {
+            writeString(out, unlock);
+        }
+    }
+
+    /**
+     * Read world data.
+     * 
+     * @param services The services reference.
+     * @param buffer The section buffer.
+     */
+    private static void readWorld(Services services, ByteBuffer buffer)
+    {
+        services.get(Camera.class).teleport(buffer.getDouble(), buffer.getDouble());
+
+        final int wood = buffer.getInt();
+        final int gold = buffer.getInt();
+        final int food = buffer.getInt();
+        final int consumed = buffer.getInt();
+
+        final int count = Short.toUnsignedInt(buffer.getShort());
+        final Collection<String> unlocked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            unlocked.add(readString(buffer));
+        }
+        services.get(Player.class).restore(wood, gold, food, consumed, unlocked);
+    }
+
+    /**
+     * Write map tiles.
+     * 
+     * @param map The map reference.
+     * @param out The output stream.
+     * @throws IOException If error.
+     */
+    private static void writeMap(MapTile map, DataOutputStream out) throws IOException
+    {
+        final int width = map.getInTileWidth();
+        final int height = map.getInTileHeight();
+        out.writeInt(width);
+        out.writeInt(height);
+
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                if (tile == null)
+                {
+                    out.writeInt(NONE);
+                }
+                else
+                {
+                    out.writeInt(tile.getNumber());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read map tiles, only changed tiles are set.
+     * 
+     * @param map The map reference.
+     * @param buffer The section buffer.
+     * @param media The snapshot media.
+     * @throws LionEngineException If map size does not match.
+     */
+    private static void readMap(MapTile map, ByteBuffer buffer, Media media)
+    {
+        final int width = buffer.getInt();
+        final int height = buffer.getInt();
+        if (width != map.getInTileWidth() || height != map.getInTileHeight())
+        {
+            throw new LionEngineException(media, ERROR_SNAPSHOT + "map size mismatch");
+        }
+
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                final int number = buffer.getInt();
+                final Tile tile = map.getTile(tx, ty);
+                if (number != NONE && (tile == null || tile.getNumber() != number))
+                {
+                    map.setTile(tx, ty, number);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write entities.
+     * 
+     * @param handler The handler reference.
+     * @param out The output stream.
+     * @throws IOException If error.
+     */
+    private static void writeEntities(Handler handler, DataOutputStream out) throws IOException
+    {
+        final Map<Media, Key> keys = createKeys();
+        final List<EntityModel> models = new ArrayList<>();
+        final List<Producible> queued = new ArrayList<>();
+        for (final EntityModel model : handler.get(EntityModel.class))
+        {
+            if (keys.containsKey(model.getFeature(Producible.class).getMedia()))
+            {
+                models.add(model);
+                for (final Featurable featurable : model.getProductionQueue())
+                {
+                    queued.add(featurable.getFeature(Producible.class));
+                }
+            }
+        }
+        models.removeIf(model -> queued.contains(model.getFeature(Producible.class)));
+
+        out.writeInt(models.size());
+        for (final EntityModel model : models)
+        {
+            writeEntity(model, keys, out);
+        }
+    }
+
+    /**
+     * Write entity.
+     * 
+     * @param model The entity model.
+     * @param keys The entity keys.
+     * @param out The output stream.
+     * @throws IOException If error.
+     */
+    private static void writeEntity(EntityModel model, Map<Media, Key> keys, DataOutputStream out) throws IOException
+    {
+        final Pathfindable pathfindable = model.getFeature(Pathfindable.class);
+
+        out.writeInt(model.getFeature(Identifiable.class).getId().intValue());
+        keys.get(model.getFeature(Producible.class).getMedia()).write(out);
+        out.writeShort(pathfindable.getInTileX());
+        out.writeShort(pathfindable.getInTileY());
+        out.writeInt(model.getFeature(EntityStats.class).getHealth());
+        out.writeBoolean(model.isVisible());
+
+        final StateHandler state = model.getFeature(StateHandler.class);
+        int stateIndex = NONE;
+        for (int i = 0; i < STATES.size(); i++)
+        {
+            if (state.isState(STATES.get(i)))
+            {
+                stateIndex = i;
+                break;
+            }
+        }
+        out.writeByte(stateIndex);
+
+        final String resource = model.getResourceType();
+        out.writeBoolean(resource != null);
+        if (resource != null)
+        {
+            final Tiled location = model.getFeature(Extractor.class).getResourceLocation();
+            writeString(out, resource);
+            out.writeShort(location.getInTileX());
+            out.writeShort(location.getInTileY());
+            out.writeShort(location.getInTileWidth());
+            out.writeShort(location.getInTileHeight());
+        }
+
+        final String carry = model.getCarryResource();
+        out.writeBoolean(carry != null);
+        if (carry != null)
+        {
+            writeString(out, carry);
+        }
+
+        final boolean extractable = model.hasFeature(Extractable.class);
+        out.writeBoolean(extractable);
+        if (extractable)
+        {
+            out.writeInt(model.getFeature(Extractable.class).getResourceQuantity());
+        }
+
+        final Transformable target = model.getFeature(Attacker.class).getTarget();
+        if (target == null)
+        {
+            out.writeInt(NONE);
+        }
+        else
+        {
+            out.writeInt(target.getFeature(Identifiable.class).getId().intValue());
+        }
+
+        final List<Featurable> queue = model.getProductionQueue();
+        out.writeShort(queue.size());
+        for (final Featurable featurable : queue)
+        {
+            final Producible producible = featurable.getFeature(Producible.class);
+            keys.get(producible.getMedia()).write(out);
+            out.writeDouble(producible.getX());
+            out.writeDouble(producible.getY());
+        }
+    }
+
+    /**
+     * Read entities. Entities are spawned first, then references between them are restored.
+     * 
+     * @param world The world reference.
+     * @param services The services reference.
+     * @param buffer The section buffer.
+     * @return The spawned entities.
+     */
+    private static List<Transformable> readEntities(World world, Services services, ByteBuffer buffer)
+    {
+        final Factory factory = services.get(Factory.class);
+        final Race[] races = Race.values();
+        final Unit[] units = Unit.values();
+
+        final int count = buffer.getInt();
+        final Map<Integer, Transformable> ids = new HashMap<>(count);
+        final List<Transformable> spawned = new ArrayList<>(count);
+        final int[] targets = new int[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            final Integer id = Integer.valueOf(buffer.getInt());
+            final Race race = races[buffer.get()];
+            final Unit unit = units[buffer.get()];
+            final Transformable transformable = world.spawn(race, unit, buffer.getShort(), buffer.getShort());
+            ids.put(id, transformable);
+            spawned.add(transformable);
+
+            final EntityModel model = transformable.getFeature(EntityModel.class);
+            model.getFeature(EntityStats.class).setHealth(buffer.getInt());
+            model.setVisible(buffer.get() != 0);
+
+            final int state = buffer.get();
+            if (state != NONE)
+            {
+                model.getFeature(StateHandler.class).changeState(STATES.get(state));
+            }
+            if (buffer.get() != 0)
+            {
+                final Extractor extractor = model.getFeature(Extractor.class);
+                extractor.setResource(readString(buffer),
+                                      buffer.getShort(),
+                                      buffer.getShort(),
+                                      buffer.getShort(),
+                                      buffer.getShort());
+                extractor.startExtraction();
+            }
+            if (buffer.get() != 0)
+            {
+                model.restoreCarry(readString(buffer));
+            }
+            if (buffer.get() != 0)
+            {
+                final Extractable extractable = model.getFeature(Extractable.class);
+                extractable.extractResource(extractable.getResourceQuantity() - buffer.getInt());
+            }
+            targets[i] = buffer.getInt();
+
+            final int queue = Short.toUnsignedInt(buffer.getShort());
+            for (int q = 0; q < queue; q++)
+            {
+                final Featurable featurable = factory.create(races[buffer.get()].get(units[buffer.get()]));
+                final Producible producible = featurable.getFeature(Producible.class);
+                producible.setLocation(buffer.getDouble(), buffer.getDouble());
+                if (featurable.hasFeature(Buildable.class))
+                {
+                    model.build(featurable,
+                                Geom.createArea(producible.getX(),
+                                                producible.getY(),
+                                                producible.getWidth(),
+                                                producible.getHeight()));
+                }
+                else
+                {
+                    model.produce(featurable);
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            final Transformable target = ids.get(Integer.valueOf(targets[i]));
+            if (target != null)
+            {
+                spawned.get(i).getFeature(Attacker.class).attack(target);
+            }
+        }
+        return spawned;
+    }
+
+    /**
+     * Create entity keys by media.
+     * 
+     * @return The entity keys.
+     */
+    private static Map<Media, Key> createKeys()
+    {
+        final Map<Media, Key> keys = new HashMap<>();
+        for (final Race race : Race.values())
+        {
+            for (final Unit unit : Unit.values())
+            {
+                keys.put(race.get(unit), new Key(race, unit));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Private constructor.
+     */
+    private Snapshot()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+
+    /**
+     * Section writer.
+     */
+    @FunctionalInterface
+    private interface SectionWriter
+    {
+        /**
+         * Write section content.
+         * 
+         * @param out The section output.
+         * @throws IOException If error.
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Entity key, as race and unit.
+     */
+    private static final class Key
+    {
+        private final Race race;
+        private final Unit unit;
+
+        /**
+         * Create key.
+         * 
+         * @param race The race.
+         * @param unit The unit.
+         */
+        Key(Race race, Unit unit)
+        {
+            super();
+
+            this.race = race;
+            this.unit = unit;
+        }
+
+        /**
+         * Write key.
+         * 
+         * @param out The output stream.
+         * @throws IOException If error.
+         */
+        void write(DataOutputStream out) throws IOException
+        {
+            out.writeByte(race.ordinal());
+            out.writeByte(unit.ordinal());
+        }
+    }
+}
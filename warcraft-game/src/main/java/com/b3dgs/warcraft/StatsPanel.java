@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.Bar;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.drawable.Drawable;
+import com.b3dgs.lionengine.graphic.drawable.Image;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.constant.Gfx;
+
+/**
+ * Entity stats panel, shared by all entities.
+ * <p>
+ * Only the selected entity stats are displayed, always at the same place, so the panel background, the health bar and
+ * one icon image per entity type are created once and shared by all instances.
+ * </p>
+ */
+public class StatsPanel
+{
+    private static final int ICON_X = Constant.ENTITY_INFO_X + 4;
+    private static final int ICON_Y = Constant.ENTITY_INFO_Y + 4;
+    private static final int BAR_HEALTH_WIDTH = 27;
+    private static final int BAR_HEALTH_HEIGHT = 3;
+    private static final int BAR_HEALTH_X = 31;
+    private static final int BAR_HEALTH_Y = 16;
+
+    /**
+     * Create health bar.
+     * 
+     * @return The created health bar.
+     */
+    private static Bar createBar()
+    {
+        final Bar bar = new Bar(BAR_HEALTH_WIDTH, BAR_HEALTH_HEIGHT);
+        bar.setLocation(ICON_X + BAR_HEALTH_X, ICON_Y + BAR_HEALTH_Y);
+        bar.setColorForeground(Constant.COLOR_HEALTH_GOOD);
+        return bar;
+    }
+
+    private final Image stats = Util.getImage(Gfx.HUD_STATS, Constant.ENTITY_INFO_X, Constant.ENTITY_INFO_Y);
+    private final Bar barHealth = createBar();
+    private final Map<Media, Image> icons = new HashMap<>();
+
+    /**
+     * Create panel.
+     */
+    public StatsPanel()
+    {
+        super();
+    }
+
+    /**
+     * Get the icon shared by all entities of this setup.
+     * 
+     * @param setup The entity setup.
+     * @return The shared icon.
+     */
+    public Image getIcon(Setup setup)
+    {
+        return icons.computeIfAbsent(setup.getIconFile(), media ->
+        {
+            final Image icon = Drawable.loadImage(setup.getIcon());
+            icon.setLocation(ICON_X, ICON_Y);
+            return icon;
+        });
+    }
+
+    /**
+     * Render panel for an entity.
+     * 
+     * @param g The graphic output.
+     * @param icon The entity icon.
+     * @param healthPercent The entity health percent.
+     */
+    public void render(Graphic g, Image icon, int healthPercent)
+    {
+        barHealth.setWidthPercent(healthPercent);
+        if (healthPercent < Constant.HEALTH_PERCENT_ALERT)
+        {
+            barHealth.setColorForeground(Constant.COLOR_HEALTH_ALERT);
+        }
+        else if (healthPercent < Constant.HEALTH_PERCENT_WARN)
+        {
+            barHealth.setColorForeground(Constant.COLOR_HEALTH_WARN);
+        }
+        else
+        {
+            barHealth.setColorForeground(Constant.COLOR_HEALTH_GOOD);
+        }
+
+        stats.render(g);
+        barHealth.render(g);
+        icon.render(g);
+    }
+}
@@ -21,12 +21,9 @@ import com.b3dgs.lionengine.UtilMath;
 import com.b3dgs.lionengine.game.FeatureProvider;
 import com.b3dgs.lionengine.game.Tiled;
 import com.b3dgs.lionengine.game.feature.Actionable;
-import com.b3dgs.lionengine.game.feature.Handler;
-import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.producible.Producer;
 import com.b3dgs.lionengine.game.feature.producible.Producible;
-import com.b3dgs.lionengine.game.feature.tile.Tile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.CoordTile;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
@@ -37,8 +34,6 @@ import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.constant.Gfx;
 import com.b3dgs.warcraft.object.EntityModel;
 import com.b3dgs.warcraft.object.feature.Buildable;
-import com.b3dgs.warcraft.object.feature.EntityStats;
-import com.b3dgs.warcraft.object.feature.Warehouse;
 
 /**
  * Utility functions.
@@ -60,63 +55,6 @@ public final class Util
         return image;
     }
 
-    /**
-     * Get owner warehouse.
-     * 
-     * @param services The services reference.
-     * @param race The owner race.
-     * @return The owner warehouse, <code>null</code> if none.
-     */
-    public static Warehouse getWarehouse(Services services, Race race)
-    {
-        final Handler handler = services.get(Handler.class);
-
-        for (final Warehouse warehouse : handler.get(Warehouse.class))
-        {
-            if (race.equals(warehouse.getFeature(EntityStats.class).getRace()))
-            {
-                return warehouse;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Get the closest next tree around cut.
-     * 
-     * @param map The map tile reference.
-     * @param mapPath The map path reference.
-     * @param cut The cut tree.
-     * @param transformable The transformable reference.
-     * @return The next tree to cut, <code>null</code> if none.
-     */
-    public static Tile getClosestTree(MapTile map, MapTilePath mapPath, Tile cut, Transformable transformable)
-    {
-        double dist = Double.MAX_VALUE;
-        Tile next = null;
-        for (int tx = -1; tx < 2; tx++)
-        {
-            for (int ty = -1; ty < 2; ty++)
-            {
-                if (tx == 0 && ty == 0)
-                {
-                    continue;
-                }
-                final Tile tree = map.getTile(cut.getInTileX() + tx, cut.getInTileY() + ty);
-                if (tree != null && Constant.CATEGORY_TREE.equals(mapPath.getCategory(tree)))
-                {
-                    final double cur = UtilMath.getDistance(tree, transformable);
-                    if (cur < dist)
-                    {
-                        dist = cur;
-                        next = tree;
-                    }
-                }
-            }
-        }
-        return next;
-    }
-
     /**
      * Get distance in tile.
      * 
@@ -17,11 +17,13 @@
 package com.b3dgs.warcraft;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import com.b3dgs.lionengine.Align;
 import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Medias;
-import com.b3dgs.lionengine.Tick;
 import com.b3dgs.lionengine.audio.Audio;
 import com.b3dgs.lionengine.audio.AudioFactory;
 import com.b3dgs.lionengine.game.Cursor;
@@ -33,6 +35,7 @@ import com.b3dgs.lionengine.game.feature.collidable.selector.Hud;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selector;
 import com.b3dgs.lionengine.game.feature.producible.Producer;
 import com.b3dgs.lionengine.game.feature.producible.ProducerListenerVoid;
+import com.b3dgs.lionengine.game.feature.producible.Producible;
 import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.lionengine.game.feature.tile.map.persister.MapTilePersister;
@@ -50,8 +53,24 @@ import com.b3dgs.lionengine.io.FileReading;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.constant.Folder;
 import com.b3dgs.warcraft.constant.Gfx;
+import com.b3dgs.warcraft.object.EntityModel;
 import com.b3dgs.warcraft.object.feature.AutoAttack;
+import com.b3dgs.warcraft.object.feature.EntityStats;
 import com.b3dgs.warcraft.object.feature.Warehouse;
+import com.b3dgs.warcraft.world.CommandType;
+import com.b3dgs.warcraft.world.Commands;
+import com.b3dgs.warcraft.world.ConfigRegistry;
+import com.b3dgs.warcraft.world.EntityStore;
+import com.b3dgs.warcraft.world.FlowField;
+import com.b3dgs.warcraft.world.Forest;
+import com.b3dgs.warcraft.world.Pool;
+import com.b3dgs.warcraft.world.Scheduler;
+import com.b3dgs.warcraft.world.SensePhase;
+import com.b3dgs.warcraft.world.SpatialIndex;
+import com.b3dgs.warcraft.world.TerrainCache;
+import com.b3dgs.warcraft.world.ViewCulling;
+import com.b3dgs.warcraft.world.Visibility;
+import com.b3dgs.warcraft.world.WarehouseRegistry;
 import com.b3dgs.warcraft.world.WorldMinimap;
 import com.b3dgs.warcraft.world.WorldNavigator;
 import com.b3dgs.warcraft.world.WorldSelection;
@@ -70,22 +89,39 @@ public class World extends WorldHelper
     private static final int RESOURCES_Y = 2;
     private static final Area AREA = Geom.createArea(VIEW_X, VIEW_Y, 304, 192);
     private static final int DELAY_ATTACK = 6000;
+    private static final int POOL_WARM = 8;
+    private static final String[] POOL_EFFECTS =
+    {
+        "explode.xml", "corpse_building.xml", "corpse_human.xml", "corpse_orc.xml"
+    };
 
     private final Player player = services.add(new Player(Race.ORC));
-    private final WorldMinimap minimap = new WorldMinimap(services);
+    private final Visibility visibility = services.add(new Visibility(services));
+    private final EntityStore store = services.add(new EntityStore(services));
+    private final WorldMinimap minimap = services.add(new WorldMinimap(services));
     private final Cursor cursor = services.create(Cursor.class);
     private final Image wood = Util.getImage(Gfx.HUD_WOOD, RESOURCES_WOOD_X + 10, RESOURCES_Y - 2);
     private final Image gold = Util.getImage(Gfx.HUD_GOLD, RESOURCES_GOLD_X + 10, RESOURCES_Y - 1);
     private final SpriteFont text;
     private final WorldNavigator navigator;
     private final WorldSelection selection;
-    private final DeviceController device = services.add(DeviceControllerConfig.create(services,
-                                                                                       Medias.create("input.xml")));
-    private final DeviceController deviceCursor = DeviceControllerConfig.create(services,
-                                                                                Medias.create("input_cursor.xml"));
-    private final Tick tick = new Tick();
+    private final DeviceController device;
+    private final DeviceController deviceCursor;
+    private final FlowField flowField;
+    private final SensePhase sensePhase;
+    private final Commands commands;
+    private final Forest forest;
+    private final TerrainCache terrain;
+    private final SfxMixer mixer;
+    private final Scheduler scheduler;
+    private final ViewCulling culling;
+    private final WarehouseRegistry warehouses;
+    private final boolean headless;
 
     private Audio music;
+    private Media snapshot;
+    private Media replay;
+    private long seed = System.nanoTime();
 
     /**
      * Create the world.
@@ -93,10 +129,47 @@ public class World extends WorldHelper
      * @param services The services reference.
      */
     public World(Services services)
+    {
+        this(services, false);
+    }
+
+    /**
+     * Create the world.
+     * <p>
+     * A headless world has no input device, audio or rendering. It is intended to be updated at a fixed step by a
+     * {@link Simulation}.
+     * </p>
+     * 
+     * @param services The services reference.
+     * @param headless <code>true</code> to run without input, audio and rendering, <code>false</code> else.
+     */
+    public World(Services services, boolean headless)
     {
         super(services);
 
+        this.headless = headless;
+
+        services.add(new ConfigRegistry());
+        scheduler = services.add(new Scheduler());
+        culling = services.add(new ViewCulling(camera, map));
+        mixer = services.add(new SfxMixer(services));
         services.add(new ProduceProgress());
+        services.add(new StatsPanel());
+        services.add(new SpatialIndex(services));
+        warehouses = services.add(new WarehouseRegistry(services));
+        terrain = services.add(new TerrainCache(services));
+        forest = services.add(new Forest(map, terrain));
+        flowField = services.add(new FlowField(services));
+        commands = services.add(new Commands(services));
+        sensePhase = services.add(new SensePhase(services));
+        sensePhase.addType(AutoAttack.class);
+        sensePhase.addType(EntityModel.class);
+
+        final Pool pool = services.add(new Pool(services));
+        for (final String effect : POOL_EFFECTS)
+        {
+            pool.warm(Medias.create(Folder.EFFECTS, effect), POOL_WARM);
+        }
 
         camera.setView(VIEW_X, VIEW_Y, AREA.getWidth(), AREA.getHeight(), AREA.getHeight());
 
@@ -104,26 +177,166 @@ public class World extends WorldHelper
         text.setLocation(TEXT_X, TEXT_Y);
 
         final Hud hud = services.add(factory.create(Medias.create("hud.xml")));
-        handler.add(hud);
-
         final Selector selector = services.get(Selector.class);
-        selector.addFeatureAndGet(new LayerableModel(Constant.LAYER_SELECTION, Constant.LAYER_SELECTION_RENDER));
-        selector.setClickableArea(AREA);
-        selector.setSelectionColor(Constant.COLOR_SELECTION);
-        selector.setClickSelection(DeviceMapping.ACTION_LEFT.getIndex());
 
-        navigator = new WorldNavigator(services);
+        if (headless)
+        {
+            mixer.setEnabled(false);
+            handler.remove(selector);
+
+            device = null;
+            deviceCursor = null;
+            navigator = null;
+        }
+        else
+        {
+            handler.add(hud);
+
+            selector.addFeatureAndGet(new LayerableModel(Constant.LAYER_SELECTION, Constant.LAYER_SELECTION_RENDER));
+            selector.setClickableArea(AREA);
+            selector.setSelectionColor(Constant.COLOR_SELECTION);
+            selector.setClickSelection(DeviceMapping.ACTION_LEFT.getIndex());
+
+            device = services.add(DeviceControllerConfig.create(services, Medias.create("input.xml")));
+            deviceCursor = DeviceControllerConfig.create(services, Medias.create("input_cursor.xml"));
+            navigator = new WorldNavigator(services);
+        }
         selection = new WorldSelection(services);
     }
 
+    /**
+     * Check if world is running without input, audio and rendering.
+     * 
+     * @return <code>true</code> if headless, <code>false</code> else.
+     */
+    public boolean isHeadless()
+    {
+        return headless;
+    }
+
+    /**
+     * Load level map, and restore match from snapshot instead of creating a new one.
+     * 
+     * @param level The level map.
+     * @param snapshot The match snapshot.
+     * @throws LionEngineException If unable to load level or snapshot.
+     */
+    public void loadFromSnapshot(Media level, Media snapshot)
+    {
+        this.snapshot = snapshot;
+        try
+        {
+            loadFromFile(level);
+        }
+        finally
+        {
+            this.snapshot = null;
+        }
+    }
+
+    /**
+     * Load level map, and replay recorded commands on it.
+     * 
+     * @param level The level map.
+     * @param replay The commands log.
+     * @throws LionEngineException If unable to load level or commands log.
+     */
+    public void loadReplay(Media level, Media replay)
+    {
+        this.replay = replay;
+        try
+        {
+            loadFromFile(level);
+        }
+        finally
+        {
+            this.replay = null;
+        }
+    }
+
+    /**
+     * Save recorded commands.
+     * 
+     * @param media The commands log destination.
+     * @throws LionEngineException If unable to save commands log.
+     */
+    public void saveReplay(Media media)
+    {
+        commands.save(media);
+    }
+
+    /**
+     * Set the random seed used by next loaded match.
+     * 
+     * @param seed The random seed.
+     */
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * Save current match to snapshot.
+     * 
+     * @param media The snapshot destination.
+     * @throws LionEngineException If unable to save snapshot.
+     */
+    public void saveSnapshot(Media media)
+    {
+        Snapshot.save(services, media);
+    }
+
     @Override
     protected void loading(FileReading file) throws IOException
     {
-        map.loadSheets(Medias.create(Folder.MAPS, WorldType.FOREST.getFolder(), "sheets.xml"));
+        final Media sheets = Medias.create(Folder.MAPS, WorldType.FOREST.getFolder(), "sheets.xml");
+        map.loadSheets(sheets);
         map.getFeature(MapTilePersister.class).load(file);
-        minimap.load();
+        visibility.load();
         selection.reset();
 
+        if (!headless)
+        {
+            loadInterface();
+        }
+
+        if (replay == null)
+        {
+            commands.record(seed);
+        }
+        else
+        {
+            commands.replay(replay);
+        }
+
+        if (snapshot == null)
+        {
+            createAi(Race.HUMAN, 8, 56);
+            createPlayer(Race.ORC, 46, 14);
+            spawn(Race.ORC, Unit.SPEARMAN, 50, 20);
+        }
+        else
+        {
+            restore(Snapshot.load(this, services, snapshot));
+        }
+        forest.load();
+
+        if (!headless)
+        {
+            music = AudioFactory.loadAudio(Music.ORC_CAMPAIGN2.get());
+            music.setVolume(Constant.VOLUME_DEFAULT);
+            music.play();
+        }
+    }
+
+    /**
+     * Load terrain, minimap and cursor, only needed when world is displayed.
+     */
+    private void loadInterface()
+    {
+        terrain.load();
+        minimap.load();
+
         cursor.addImage(Constant.CURSOR_ID, Medias.create("cursor.png"));
         cursor.addImage(Constant.CURSOR_ID_ORDER, Medias.create("cursor_order.png"));
         cursor.addImage(Constant.CURSOR_ID_OVER, Medias.create("cursor_over.png"));
@@ -136,14 +349,24 @@ public class World extends WorldHelper
                                                                             .next()
                                                                             .getDevice()));
         cursor.setViewer(camera);
+    }
 
-        createAi(Race.HUMAN, 8, 56);
-        createPlayer(Race.ORC, 46, 14);
-        spawn(Race.ORC, Unit.SPEARMAN, 50, 20);
-
-        music = AudioFactory.loadAudio(Music.ORC_CAMPAIGN2.get());
-        music.setVolume(Constant.VOLUME_DEFAULT);
-        music.play();
+    /**
+     * Restore AI from snapshot entities.
+     * 
+     * @param entities The restored entities.
+     */
+    private void restore(List<Transformable> entities)
+    {
+        for (final Transformable entity : entities)
+        {
+            final Race race = entity.getFeature(EntityStats.class).getRace();
+            if (!race.equals(player.getRace())
+                && race.get(Unit.BARRACKS).equals(entity.getFeature(Producible.class).getMedia()))
+            {
+                startAi(race, entity.getFeature(Producer.class));
+            }
+        }
     }
 
     /**
@@ -190,7 +413,17 @@ public class World extends WorldHelper
         spawn(race, Unit.FARM, tx - 6, ty - 1);
         spawn(race, Unit.LUMBERMILL, tx + 6, ty - 4);
 
-        final Producer barracks = spawn(race, Unit.BARRACKS, tx + 6, ty + 1).getFeature(Producer.class);
+        startAi(race, spawn(race, Unit.BARRACKS, tx + 6, ty + 1).getFeature(Producer.class));
+    }
+
+    /**
+     * Start AI production and attacks.
+     * 
+     * @param race The AI race.
+     * @param barracks The barracks reference.
+     */
+    private void startAi(Race race, Producer barracks)
+    {
         barracks.addListener(new ProducerListenerVoid()
         {
             @Override
@@ -198,15 +431,15 @@ public class World extends WorldHelper
             {
                 featurable.getFeature(AutoAttack.class).setForce(true);
 
-                final Warehouse warehouse = Util.getWarehouse(services, player.getRace());
+                final Pathfindable pathfindable = featurable.getFeature(Pathfindable.class);
+                final Warehouse warehouse = warehouses.getClosest(player.getRace(), pathfindable);
                 if (warehouse != null)
                 {
-                    featurable.getFeature(Pathfindable.class).setDestination(warehouse);
+                    pathfindable.setDestination(warehouse);
                 }
             }
         });
-        tick.addAction(() -> aiProduceAndAttack(race, barracks), DELAY_ATTACK);
-        tick.start();
+        scheduler.repeat(scheduler.create(() -> aiProduceAndAttack(race, barracks)), DELAY_ATTACK, DELAY_ATTACK);
     }
 
     /**
@@ -217,8 +450,7 @@ public class World extends WorldHelper
      */
     private void aiProduceAndAttack(Race race, Producer barracks)
     {
-        barracks.addToProductionQueue(factory.create(race.get(Unit.FOOTMAN)));
-        tick.addAction(() -> aiProduceAndAttack(race, barracks), DELAY_ATTACK);
+        commands.issue(CommandType.PRODUCE, Collections.singletonList(barracks), 0, 0, race.get(Unit.FOOTMAN));
     }
 
     /**
@@ -242,24 +474,54 @@ public class World extends WorldHelper
         return featurable.getFeature(Transformable.class);
     }
 
+    /**
+     * Release world resources.
+     */
+    public void dispose()
+    {
+        terrain.dispose();
+        if (!headless)
+        {
+            minimap.dispose();
+        }
+    }
+
     @Override
     public void update(double extrp)
     {
-        text.setText(com.b3dgs.lionengine.Constant.EMPTY_STRING);
-
-        device.update(extrp);
-        deviceCursor.update(extrp);
-        cursor.update(extrp);
-        navigator.update(extrp);
+        if (!headless)
+        {
+            text.setText(com.b3dgs.lionengine.Constant.EMPTY_STRING);
+
+            device.update(extrp);
+            deviceCursor.update(extrp);
+            cursor.update(extrp);
+            navigator.update(extrp);
+        }
+        culling.update(extrp);
+        commands.update(extrp);
         player.update(extrp);
-        tick.update(extrp);
+        flowField.update(extrp);
+        scheduler.update(extrp);
+        visibility.update(extrp);
+        minimap.update(extrp);
+        terrain.update(extrp);
 
+        sensePhase.update(extrp);
         super.update(extrp);
+        forest.update(extrp);
+        store.update(extrp);
+        mixer.update(extrp);
     }
 
     @Override
     public void render(Graphic g)
     {
+        if (headless)
+        {
+            return;
+        }
+        terrain.render(g);
         super.render(g);
 
         minimap.render(g);
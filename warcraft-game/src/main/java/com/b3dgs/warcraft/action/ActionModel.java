@@ -44,6 +44,7 @@ import com.b3dgs.lionengine.graphic.drawable.SpriteTiled;
 import com.b3dgs.warcraft.DeviceMapping;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.constant.Gfx;
+import com.b3dgs.warcraft.world.Commands;
 
 /**
  * Action model implementation.
@@ -71,6 +72,8 @@ public class ActionModel extends FeaturableModel implements Updatable, Renderabl
     protected final Handler handler = services.get(Handler.class);
     /** Text reference. */
     protected final SpriteFont text = services.get(SpriteFont.class);
+    /** Commands reference. */
+    protected final Commands commands = services.get(Commands.class);
 
     private final String description;
 
@@ -25,23 +25,15 @@ import com.b3dgs.lionengine.Medias;
 import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.UtilMath;
 import com.b3dgs.lionengine.Viewer;
-import com.b3dgs.lionengine.XmlReader;
-import com.b3dgs.lionengine.game.Configurer;
 import com.b3dgs.lionengine.game.Cursor;
 import com.b3dgs.lionengine.game.SizeConfig;
 import com.b3dgs.lionengine.game.feature.Actionable;
-import com.b3dgs.lionengine.game.feature.Factory;
-import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Hud;
 import com.b3dgs.lionengine.game.feature.collidable.selector.HudListener;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
-import com.b3dgs.lionengine.game.feature.producible.Producer;
-import com.b3dgs.lionengine.game.feature.producible.Producible;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
-import com.b3dgs.lionengine.game.feature.tile.map.transition.fog.FogOfWar;
 import com.b3dgs.lionengine.geom.Rectangle;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
@@ -50,10 +42,15 @@ import com.b3dgs.lionengine.io.DeviceController;
 import com.b3dgs.warcraft.DeviceMapping;
 import com.b3dgs.warcraft.Player;
 import com.b3dgs.warcraft.Sfx;
+import com.b3dgs.warcraft.SfxMixer;
 import com.b3dgs.warcraft.Util;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.constant.Gfx;
 import com.b3dgs.warcraft.object.CostConfig;
+import com.b3dgs.warcraft.object.EntityConfig;
+import com.b3dgs.warcraft.world.CommandType;
+import com.b3dgs.warcraft.world.ConfigRegistry;
+import com.b3dgs.warcraft.world.Visibility;
 
 /**
  * Build button action.
@@ -87,19 +84,20 @@ public class BuildButton extends ActionModel
 
     private final Media target;
     private final CostConfig config;
+    private final SizeConfig size;
     private Rectangle area;
     private boolean valid;
     private Pathfindable mover;
     private int colorSide = 1;
     private int color;
 
-    private final Factory factory = services.get(Factory.class);
     private final Viewer viewer = services.get(Viewer.class);
     private final Cursor cursor = services.get(Cursor.class);
     private final DeviceController device = services.get(DeviceController.class);
     private final Hud hud = services.get(Hud.class);
     private final Player player = services.get(Player.class);
-    private final FogOfWar fogOfWar = services.get(FogOfWar.class);
+    private final Visibility visibility = services.get(Visibility.class);
+    private final SfxMixer mixer = services.get(SfxMixer.class);
 
     /**
      * Create build button action.
@@ -112,7 +110,9 @@ public class BuildButton extends ActionModel
         super(services, setup);
 
         target = Medias.create(setup.getText(NODE_MEDIA).split(com.b3dgs.lionengine.Constant.SLASH));
-        config = CostConfig.imports(new Configurer(target));
+        final EntityConfig entity = services.get(ConfigRegistry.class).get(target);
+        config = entity.getCost();
+        size = entity.getSize();
 
         hud.addListener(new HudListener()
         {
@@ -164,7 +164,6 @@ public class BuildButton extends ActionModel
             return false;
         }
 
-        final SizeConfig size = SizeConfig.imports(new XmlReader(target));
         area = new Rectangle(0, 0, size.getWidth(), size.getHeight());
         hud.setCancelShortcut(() -> device.isFiredOnce(DeviceMapping.ACTION_RIGHT));
         cursor.setVisible(false);
@@ -180,28 +179,11 @@ public class BuildButton extends ActionModel
             return false;
         }
 
-        for (final Selectable selectable : selector.getSelection())
-        {
-            player.decreaseResource(config.getWood(), config.getGold());
-
-            final Featurable building = factory.create(target);
-            final Producible producible = building.getFeature(Producible.class);
-            producible.setLocation(area.getX(), area.getY());
-
-            final Producer producer = selectable.getFeature(Producer.class);
-            final Pathfindable pathfindable = producer.getFeature(Pathfindable.class);
-            final Transformable transformable = producer.getFeature(Transformable.class);
-            producer.setChecker(featurable -> UtilMath.getDistance(featurable.getFeature(Producible.class),
-                                                                   transformable) < map.getTileWidth()
-                                              && pathfindable.isDestinationReached());
-
-            pathfindable.setDestination(area);
-            producer.addToProductionQueue(building);
-        }
+        commands.issue(CommandType.BUILD, selector.getSelection(), (int) area.getX(), (int) area.getY(), target);
         area = null;
         hud.clearMenus();
         hud.setCancelShortcut(() -> false);
-        Sfx.NEUTRAL_BUILD.play();
+        mixer.play(Sfx.NEUTRAL_BUILD);
 
         cursor.setSurfaceId(Constant.CURSOR_ID);
         cursor.setRenderingOffset(0, 0);
@@ -219,7 +201,12 @@ public class BuildButton extends ActionModel
                      UtilMath.getRounded(cursor.getY(), cursor.getHeight()),
                      area.getWidthReal(),
                      area.getHeightReal());
-            valid = mapPath.isAreaAvailable(area, mover) && fogOfWar.isVisited(area);
+            valid = mapPath.isAreaAvailable(area, mover)
+                    && visibility.isVisited(player.getRace(),
+                                            (int) area.getX() / map.getTileWidth(),
+                                            (int) area.getY() / map.getTileHeight(),
+                                            area.getWidth() / map.getTileWidth(),
+                                            area.getHeight() / map.getTileHeight());
 
             updateColor();
         }
@@ -16,16 +16,9 @@
  */
 package com.b3dgs.warcraft.action;
 
-import java.util.List;
-
-import com.b3dgs.lionengine.game.Tiled;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
-import com.b3dgs.warcraft.Util;
-import com.b3dgs.warcraft.object.feature.EntitySfx;
-import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.world.CommandType;
 
 /**
  * Carry action.
@@ -42,23 +35,6 @@ public class Carry extends ActionModel
     {
         super(services, setup);
 
-        actionable.setAction(() ->
-        {
-            final List<Selectable> selection = selector.getSelection();
-            final int n = selection.size();
-            for (int i = 0; i < n; i++)
-            {
-                final Selectable selectable = selection.get(i);
-                final Tiled warehouse = Util.getWarehouse(services, selectable.getFeature(EntityStats.class).getRace());
-                if (warehouse != null)
-                {
-                    selectable.getFeature(Pathfindable.class).setDestination(warehouse);
-                    if (i == 0)
-                    {
-                        selectable.getFeature(EntitySfx.class).onOrdered();
-                    }
-                }
-            }
-        });
+        actionable.setAction(() -> commands.issue(CommandType.CARRY, selector.getSelection()));
     }
 }
@@ -16,12 +16,9 @@
  */
 package com.b3dgs.warcraft.action;
 
-import java.util.List;
-
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
-import com.b3dgs.warcraft.object.feature.RightClickExtract;
+import com.b3dgs.warcraft.world.CommandType;
 
 /**
  * Extract action.
@@ -42,13 +39,7 @@ public class Extract extends ActionModel
     @Override
     protected boolean assign()
     {
-        final List<Selectable> selection = selector.getSelection();
-        final int n = selection.size();
-        for (int i = 0; i < n; i++)
-        {
-            final Selectable selectable = selection.get(i);
-            selectable.getFeature(RightClickExtract.class).execute();
-        }
+        commands.issue(CommandType.EXTRACT, selector.getSelection(), map.getInTileX(cursor), map.getInTileY(cursor));
         return true;
     }
 }
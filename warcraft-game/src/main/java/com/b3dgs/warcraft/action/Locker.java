@@ -16,9 +16,6 @@
  */
 package com.b3dgs.warcraft.action;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
@@ -26,7 +23,7 @@ import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.warcraft.Player;
-import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.world.ConfigRegistry;
 
 /**
  * Handle the action lock.
@@ -34,24 +31,6 @@ import com.b3dgs.warcraft.constant.Constant;
 @FeatureInterface
 public class Locker extends FeatureModel
 {
-    private static final String NODE_LOCK = "lock";
-    private static final String ATT_VALUES = "values";
-
-    /**
-     * Load defined locks.
-     * 
-     * @param setup The setup reference.
-     * @return The loaded unlocks.
-     */
-    private static Set<String> loadLocks(Setup setup)
-    {
-        if (setup.hasNode(NODE_LOCK))
-        {
-            return new HashSet<>(Arrays.asList(setup.getString(ATT_VALUES, NODE_LOCK).split(Constant.SFX_SEPARATOR)));
-        }
-        return Collections.emptySet();
-    }
-
     private final Set<String> lockers;
 
     /**
@@ -64,7 +43,7 @@ public class Locker extends FeatureModel
     {
         super(services, setup);
 
-        lockers = loadLocks(setup);
+        lockers = services.get(ConfigRegistry.class).get(setup).getLocks();
     }
 
     /**
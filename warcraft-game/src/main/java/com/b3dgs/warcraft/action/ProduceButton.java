@@ -16,27 +16,19 @@
  */
 package com.b3dgs.warcraft.action;
 
-import java.util.List;
-
 import com.b3dgs.lionengine.Align;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Medias;
-import com.b3dgs.lionengine.game.Configurer;
-import com.b3dgs.lionengine.game.feature.Factory;
-import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.Transformable;
-import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
-import com.b3dgs.lionengine.game.feature.producible.Producer;
-import com.b3dgs.lionengine.game.feature.producible.Producible;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.drawable.Image;
 import com.b3dgs.warcraft.Player;
 import com.b3dgs.warcraft.Util;
 import com.b3dgs.warcraft.constant.Gfx;
 import com.b3dgs.warcraft.object.CostConfig;
-import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.world.CommandType;
+import com.b3dgs.warcraft.world.ConfigRegistry;
 
 /**
  * Produce button action.
@@ -64,10 +56,9 @@ public class ProduceButton extends ActionModel
         super(services, setup);
 
         final Media target = Medias.create(setup.getText(NODE_MEDIA));
-        final Factory factory = services.get(Factory.class);
         final Player player = services.get(Player.class);
 
-        config = CostConfig.imports(new Configurer(target));
+        config = services.get(ConfigRegistry.class).get(target).getCost();
 
         actionable.setAction(() ->
         {
@@ -75,22 +66,7 @@ public class ProduceButton extends ActionModel
                 && player.isAvailableWood(config.getWood())
                 && player.isAvailableGold(config.getGold()))
             {
-                player.decreaseResource(config.getWood(), config.getGold());
-
-                final Featurable entity = factory.create(target);
-                entity.getFeature(EntityModel.class).setVisible(false);
-
-                final List<Selectable> selection = selector.getSelection();
-                final int n = selection.size();
-                for (int i = 0; i < n; i++)
-                {
-                    final Producer producer = selection.get(i).getFeature(Producer.class);
-                    final Transformable transformable = producer.getFeature(Transformable.class);
-                    entity.getFeature(Producible.class)
-                          .setLocation(transformable.getX() + transformable.getWidth() / 2,
-                                       transformable.getY() + transformable.getHeight() / 2);
-                    producer.addToProductionQueue(entity);
-                }
+                commands.issue(CommandType.PRODUCE, selector.getSelection(), 0, 0, target);
             }
         });
     }
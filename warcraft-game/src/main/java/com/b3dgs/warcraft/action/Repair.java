@@ -16,17 +16,9 @@
  */
 package com.b3dgs.warcraft.action;
 
-import java.util.List;
-
-import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.Transformable;
-import com.b3dgs.lionengine.game.feature.attackable.Attacker;
-import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
-import com.b3dgs.warcraft.object.feature.EntitySfx;
-import com.b3dgs.warcraft.object.feature.EntityStats;
-import com.b3dgs.warcraft.object.feature.Reparable;
+import com.b3dgs.warcraft.world.CommandType;
 
 /**
  * Repair action.
@@ -44,49 +36,10 @@ public class Repair extends ActionModel
         super(services, setup);
     }
 
-    /**
-     * Assign repair.
-     * 
-     * @param featurable The featurable reference.
-     * @param selectable The selectable reference.
-     */
-    private void assign(Featurable featurable, Selectable selectable)
-    {
-        final Transformable transformable = featurable.getFeature(Transformable.class);
-        if (selectable.getFeature(EntityStats.class)
-                      .getRace()
-                      .equals(featurable.getFeature(EntityStats.class).getRace())
-            && featurable.getFeature(EntityStats.class).getHealthPercent() < 100)
-        {
-            selectable.getFeature(Attacker.class).attack(transformable);
-        }
-    }
-
     @Override
     protected boolean assign()
     {
-        final List<Selectable> selection = selector.getSelection();
-        final int n = selection.size();
-        for (int i = 0; i < n; i++)
-        {
-            final int tx = map.getInTileX(cursor);
-            final int ty = map.getInTileY(cursor);
-            final Selectable selectable = selection.get(i);
-
-            for (final Integer id : mapPath.getObjectsId(tx, ty))
-            {
-                final Featurable featurable = handler.get(id);
-                if (featurable.hasFeature(Reparable.class))
-                {
-                    assign(featurable, selectable);
-                }
-            }
-
-            if (i == 0)
-            {
-                selectable.getFeature(EntitySfx.class).onOrdered();
-            }
-        }
+        commands.issue(CommandType.REPAIR, selector.getSelection(), map.getInTileX(cursor), map.getInTileY(cursor));
         return true;
     }
 }
@@ -16,15 +16,9 @@
  */
 package com.b3dgs.warcraft.action;
 
-import java.util.List;
-
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.attackable.Attacker;
-import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
-import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
-import com.b3dgs.warcraft.object.feature.EntitySfx;
+import com.b3dgs.warcraft.world.CommandType;
 
 /**
  * Stop action.
@@ -41,22 +35,6 @@ public class Stop extends ActionModel
     {
         super(services, setup);
 
-        actionable.setAction(() ->
-        {
-            final List<Selectable> selection = selector.getSelection();
-            final int n = selection.size();
-            for (int i = 0; i < n; i++)
-            {
-                final Selectable selectable = selection.get(i);
-                selectable.getFeature(Pathfindable.class).stopMoves();
-                selectable.getFeature(Attacker.class).stopAttack();
-                selectable.getFeature(Extractor.class).stopExtraction();
-
-                if (i == 0)
-                {
-                    selectable.getFeature(EntitySfx.class).onOrdered();
-                }
-            }
-        });
+        actionable.setAction(() -> commands.issue(CommandType.STOP, selector.getSelection()));
     }
 }
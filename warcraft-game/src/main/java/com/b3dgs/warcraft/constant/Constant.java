@@ -68,6 +68,8 @@ public final class Constant
     /** Minimap vertical location. */
     public static final int MINIMAP_Y = 6;
 
+    /** Tile path category ground. */
+    public static final String CATEGORY_GROUND = "ground";
     /** Tile path category tree. */
     public static final String CATEGORY_TREE = "tree";
     /** Tile number tree cut. */
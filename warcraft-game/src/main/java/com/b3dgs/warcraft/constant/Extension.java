@@ -31,6 +31,10 @@ public final class Extension
     public static final String SFX = ".wav";
     /** Musics file extension (with dot). */
     public static final String MUSIC = ".xmi";
+    /** Replays file extension (with dot). */
+    public static final String REPLAY = ".wrp";
+    /** Assets pack file extension (with dot). */
+    public static final String PACK = ".pack";
 
     /**
      * Private constructor.
@@ -22,6 +22,7 @@ import com.b3dgs.lionengine.Resource;
 import com.b3dgs.lionengine.graphic.ImageBuffer;
 import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.Image;
+import com.b3dgs.warcraft.AssetPack;
 
 /**
  * Graphic resources.
@@ -67,6 +68,24 @@ public enum Gfx
         image = Drawable.loadImage(media);
     }
 
+    /**
+     * Load associated resource, from its pre-decoded pixels if packed.
+     * 
+     * @param pack The assets pack.
+     */
+    public void load(AssetPack pack)
+    {
+        final ImageBuffer surface = pack.getImage(image.getMedia());
+        if (surface == null)
+        {
+            image.load();
+        }
+        else
+        {
+            image = Drawable.loadImage(surface);
+        }
+    }
+
     /**
      * Get the associated resource.
      * 
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.object;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.Configurer;
+import com.b3dgs.lionengine.game.SizeConfig;
+import com.b3dgs.warcraft.Sfx;
+import com.b3dgs.warcraft.constant.Constant;
+
+/**
+ * Represents the compiled entity data, read once from its configuration and shared by all its instances.
+ */
+public final class EntityConfig
+{
+    /** Unlock node name. */
+    public static final String NODE_UNLOCK = "unlock";
+    /** Lock node name. */
+    public static final String NODE_LOCK = "lock";
+    /** Values attribute name. */
+    public static final String ATT_VALUES = "values";
+    /** Sfx attributes. */
+    private static final String[] SFX =
+    {
+        Sfx.ATT_STARTED, Sfx.ATT_PRODUCED, Sfx.ATT_SELECTED, Sfx.ATT_ORDERED, Sfx.ATT_ATTACKED, Sfx.ATT_DEAD
+    };
+
+    /**
+     * Import the data from configurer.
+     * 
+     * @param configurer The configurer reference (must not be <code>null</code>).
+     * @return The data.
+     * @throws LionEngineException If unable to read node.
+     */
+    public static EntityConfig imports(Configurer configurer)
+    {
+        Check.notNull(configurer);
+
+        final CostConfig cost;
+        if (configurer.hasNode(CostConfig.NODE_COST))
+        {
+            cost = CostConfig.imports(configurer);
+        }
+        else
+        {
+            cost = new CostConfig(0, 0);
+        }
+
+        final StatsConfig stats;
+        if (configurer.hasNode(StatsConfig.NODE_STATS))
+        {
+            stats = StatsConfig.imports(configurer);
+        }
+        else
+        {
+            stats = new StatsConfig(0);
+        }
+
+        final SizeConfig size;
+        if (configurer.hasNode(SizeConfig.NODE_SIZE))
+        {
+            size = SizeConfig.imports(configurer);
+        }
+        else
+        {
+            size = new SizeConfig(0, 0);
+        }
+
+        final Map<String, List<Sfx>> sfx = new HashMap<>();
+        for (final String attribute : SFX)
+        {
+            sfx.put(attribute, Collections.unmodifiableList(Sfx.load(configurer, attribute)));
+        }
+
+        return new EntityConfig(cost,
+                                stats,
+                                size,
+                                sfx,
+                                readValues(configurer, NODE_UNLOCK),
+                                readValues(configurer, NODE_LOCK));
+    }
+
+    /**
+     * Read values list.
+     * 
+     * @param configurer The configurer reference.
+     * @param node The values node name.
+     * @return The read values, empty if undefined.
+     */
+    private static Set<String> readValues(Configurer configurer, String node)
+    {
+        if (configurer.hasNode(node))
+        {
+            final String[] values = configurer.getString(ATT_VALUES, node).split(Constant.SFX_SEPARATOR);
+            return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(values)));
+        }
+        return Collections.emptySet();
+    }
+
+    /** The cost data. */
+    private final CostConfig cost;
+    /** The stats data. */
+    private final StatsConfig stats;
+    /** The size data. */
+    private final SizeConfig size;
+    /** The sfx by attribute. */
+    private final Map<String, List<Sfx>> sfx;
+    /** The unlocks values. */
+    private final Set<String> unlocks;
+    /** The locks values. */
+    private final Set<String> locks;
+
+    /**
+     * Create configuration.
+     * 
+     * @param cost The cost data.
+     * @param stats The stats data.
+     * @param size The size data.
+     * @param sfx The sfx by attribute.
+     * @param unlocks The unlocks values.
+     * @param locks The locks values.
+     */
+    private EntityConfig(CostConfig cost,
+                         StatsConfig stats,
+                         SizeConfig size,
+                         Map<String, List<Sfx>> sfx,
+                         Set<String> unlocks,
+                         Set<String> locks)
+    {
+        super();
+
+        this.cost = cost;
+        this.stats = stats;
+        this.size = size;
+        this.sfx = sfx;
+        this.unlocks = unlocks;
+        this.locks = locks;
+    }
+
+    /**
+     * Get the cost data.
+     * 
+     * @return The cost data, zero if undefined.
+     */
+    public CostConfig getCost()
+    {
+        return cost;
+    }
+
+    /**
+     * Get the stats data.
+     * 
+     * @return The stats data, zero if undefined.
+     */
+    public StatsConfig getStats()
+    {
+        return stats;
+    }
+
+    /**
+     * Get the size data.
+     * 
+     * @return The size data, zero if undefined.
+     */
+    public SizeConfig getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Get the sfx list.
+     * 
+     * @param attribute The sfx attribute name.
+     * @return The sfx list, empty if undefined.
+     */
+    public List<Sfx> getSfx(String attribute)
+    {
+        return sfx.getOrDefault(attribute, Collections.emptyList());
+    }
+
+    /**
+     * Get the unlocks values.
+     * 
+     * @return The unlocks values, empty if undefined.
+     */
+    public Set<String> getUnlocks()
+    {
+        return unlocks;
+    }
+
+    /**
+     * Get the locks values.
+     * 
+     * @return The locks values, empty if undefined.
+     */
+    public Set<String> getLocks()
+    {
+        return locks;
+    }
+}
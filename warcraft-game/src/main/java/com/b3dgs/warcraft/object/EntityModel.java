@@ -16,15 +16,16 @@
  */
 package com.b3dgs.warcraft.object;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import com.b3dgs.lionengine.AnimState;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Origin;
+import com.b3dgs.lionengine.UtilMath;
 import com.b3dgs.lionengine.Viewer;
-import com.b3dgs.lionengine.game.Configurer;
 import com.b3dgs.lionengine.game.FeatureProvider;
 import com.b3dgs.lionengine.game.Tiled;
 import com.b3dgs.lionengine.game.feature.Actionable;
@@ -61,9 +62,8 @@ import com.b3dgs.lionengine.game.feature.tile.map.extractable.ExtractorListener;
 import com.b3dgs.lionengine.game.feature.tile.map.extractable.ExtractorListenerVoid;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
-import com.b3dgs.lionengine.game.feature.tile.map.transition.MapTileTransition;
-import com.b3dgs.lionengine.game.feature.tile.map.transition.fog.FogOfWar;
 import com.b3dgs.lionengine.game.feature.tile.map.transition.fog.Fovable;
+import com.b3dgs.lionengine.geom.Area;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.helper.EntityModelHelper;
 import com.b3dgs.warcraft.Player;
@@ -75,15 +75,26 @@ import com.b3dgs.warcraft.object.feature.EntitySfx;
 import com.b3dgs.warcraft.object.feature.EntityStats;
 import com.b3dgs.warcraft.object.state.StateIdle;
 import com.b3dgs.warcraft.object.state.StateProducing;
+import com.b3dgs.warcraft.world.ConfigRegistry;
+import com.b3dgs.warcraft.world.Forest;
+import com.b3dgs.warcraft.world.Sensor;
+import com.b3dgs.warcraft.world.SpatialIndex;
+import com.b3dgs.warcraft.world.ViewCulling;
+import com.b3dgs.warcraft.world.Visibility;
+import com.b3dgs.warcraft.world.WarehouseRegistry;
+import com.b3dgs.warcraft.world.WorldMinimap;
 
 /**
  * Entity model implementation.
  */
 @FeatureInterface
-public final class EntityModel extends EntityModelHelper implements Routine, Recyclable
+public final class EntityModel extends EntityModelHelper implements Routine, Recyclable, Sensor
 {
-    private static final String NODE_UNLOCK = "unlock";
-    private static final String ATT_VALUES = "values";
+    private static final int INPUT_MOVING = 1;
+    private static final int INPUT_ATTACKING = 1 << 1;
+    private static final int INPUT_ANIM_FINISHED = 1 << 2;
+    private static final int INPUT_PRODUCED = 1 << 3;
+    private static final int INPUT_DEAD = 1 << 4;
 
     /**
      * Create production listener.
@@ -103,13 +114,14 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
     {
         final MapTile map = services.get(MapTile.class);
         final Player player = services.get(Player.class);
-        final Set<String> unlocks = loadUnlocks(producible);
+        final Set<String> unlocks = loadUnlocks(services.get(ConfigRegistry.class), producible);
 
         return new ProducibleListenerVoid()
         {
             @Override
             public void notifyProductionStarted(Producer producer)
             {
+                producible.getFeature(EntityModel.class).wake();
                 final Pathfindable pathfindableProducer = producer.getFeature(Pathfindable.class);
                 pathfindableProducer.stopMoves();
                 pathfindableProducer.clearPath();
@@ -125,6 +137,7 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
             @Override
             public void notifyProductionEnded(Producer producer)
             {
+                producible.getFeature(EntityModel.class).wake();
                 producible.getFeature(EntitySfx.class).onProduced();
                 player.unlock(unlocks);
                 Util.teleportOutside(map, producer, producible);
@@ -135,20 +148,16 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
     /**
      * Load defined unlocks.
      * 
+     * @param configs The compiled configurations.
      * @param producible The producible reference.
      * @return The loaded unlocks.
      */
-    private static Set<String> loadUnlocks(Producible producible)
+    private static Set<String> loadUnlocks(ConfigRegistry configs, Producible producible)
     {
         final Media media = producible.getMedia();
         if (media != null)
         {
-            final Configurer configurer = new Configurer(media);
-            if (configurer.hasNode(NODE_UNLOCK))
-            {
-                return new HashSet<>(Arrays.asList(configurer.getString(ATT_VALUES, NODE_UNLOCK)
-                                                             .split(Constant.SFX_SEPARATOR)));
-            }
+            return configs.get(media).getUnlocks();
         }
         return Collections.emptySet();
     }
@@ -158,17 +167,21 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
         @Override
         public void notifyStartGoToRessources(String type, Tiled resourceLocation)
         {
+            resourceType = type;
             if (carryResource == null)
             {
                 pathfindable.setDestination(resourceLocation);
                 gotoResource = true;
+                inputChanged = true;
             }
         }
 
         @Override
         public void notifyStartExtraction(String type, Tiled resourceLocation)
         {
+            resourceType = type;
             extractResource = type;
+            inputChanged = true;
             if (Constant.RESOURCE_WOOD.equals(type))
             {
                 pathfindable.pointTo(resourceLocation);
@@ -178,12 +191,13 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
         @Override
         public void notifyStartCarry(String type, int totalQuantity)
         {
-            final Tiled warehouse = Util.getWarehouse(services, stats.getRace());
+            final Tiled warehouse = warehouses.getClosest(stats.getRace(), pathfindable);
             if (warehouse != null)
             {
                 pathfindable.setDestination(warehouse);
                 extractResource = null;
                 carryResource = type;
+                inputChanged = true;
 
                 if (Constant.RESOURCE_WOOD.equals(type))
                 {
@@ -215,14 +229,18 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
             {
                 setVisible(true);
                 carryResource = null;
+                inputChanged = true;
             }
         }
 
         @Override
         public void notifyStopped()
         {
+            forest.release(pathfindable);
+            resourceType = null;
             gotoResource = false;
             extractResource = null;
+            inputChanged = true;
         }
     };
 
@@ -231,9 +249,13 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
     private final Selector selector = services.get(Selector.class);
     private final MapTile map = services.get(MapTile.class);
     private final MapTilePath mapPath = map.getFeature(MapTilePath.class);
-    private final MapTileTransition mapTransition = map.getFeature(MapTileTransition.class);
     private final Viewer viewer = services.get(Viewer.class);
-    private final FogOfWar fogOfWar = services.get(FogOfWar.class);
+    private final Visibility visibility = services.get(Visibility.class);
+    private final SpatialIndex index = services.get(SpatialIndex.class);
+    private final ViewCulling culling = services.get(ViewCulling.class);
+    private final WarehouseRegistry warehouses = services.get(WarehouseRegistry.class);
+    private final WorldMinimap minimap = services.get(WorldMinimap.class);
+    private final Forest forest = services.get(Forest.class);
 
     @FeatureGet private Transformable transformable;
     @FeatureGet private Collidable collidable;
@@ -250,12 +272,24 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
     @FeatureGet private StateHandler stateHandler;
     @FeatureGet private EntityStats stats;
 
+    private final List<Featurable> queue = new ArrayList<>();
+
     private boolean gotoResource;
+    private String resourceType;
     private String extractResource;
     private String carryResource;
+    private boolean carryRestored;
+    private boolean inputChanged = true;
+    private int inputs;
 
     private boolean visible = true;
     private boolean display = true;
+    private boolean sensed;
+    private boolean sensedSeen;
+    private boolean seenOld;
+    private boolean sleeping;
+    private boolean woken = true;
+    private boolean onScreen;
 
     /**
      * Create model.
@@ -288,7 +322,7 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
 
         pathfindable.setSpeed(0.8, 0.8);
 
-        fovable.setCanUpdate(() -> player.owns(provider));
+        fovable.setCanUpdate(() -> false);
 
         attacker.setAttackDistanceComputer((source, target) -> Util.getDistanceInTile(map, source, target));
         attacker.setAttackChecker(target -> target.getFeature(EntityStats.class).getHealthPercent() > 0);
@@ -305,6 +339,12 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
             {
                 featurable.getFeature(StateHandler.class).changeState(StateProducing.class);
             }
+
+            @Override
+            public void notifyProduced(Featurable featurable)
+            {
+                queue.remove(featurable);
+            }
         });
 
         extractor.setChecker(new ExtractorChecker()
@@ -319,12 +359,7 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
             @Override
             public boolean canCarry()
             {
-                final Tiled warehouse = Util.getWarehouse(services, stats.getRace());
-                if (warehouse == null)
-                {
-                    return false;
-                }
-                return Util.getDistanceInTile(pathfindable, warehouse) < 1.5;
+                return isNearWarehouse();
             }
         });
 
@@ -369,16 +404,69 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
         extractor.addListener(extractorListener);
     }
 
+    @Override
+    public void sense()
+    {
+        sensedSeen = visibility.isVisible(player.getRace(), pathfindable);
+        sensed = true;
+    }
+
     @Override
     public void update(double extrp)
     {
-        rasterable.setVisibility(visible && display && fogOfWar.isVisible(pathfindable));
+        final boolean seen;
+        if (sensed)
+        {
+            seen = sensedSeen;
+            sensed = false;
+        }
+        else
+        {
+            seen = visibility.isVisible(player.getRace(), pathfindable);
+        }
+        onScreen = culling.isVisible(pathfindable);
+        rasterable.setVisibility(visible && display && seen && onScreen);
+
+        if (sleeping && seen == seenOld)
+        {
+            return;
+        }
+        seenOld = seen;
+
+        final boolean alive = visible && stats.getHealthPercent() > 0;
+        final int slot = stats.getSlot();
+        final boolean moved = stats.setLocation(pathfindable.getInTileX(), pathfindable.getInTileY());
+        if (carryRestored && isNearWarehouse())
+        {
+            dropOffRestored();
+        }
+
+        if (alive)
+        {
+            index.update(slot);
+        }
+        else
+        {
+            index.remove(slot);
+        }
+
+        if (alive && seen)
+        {
+            minimap.update(slot, moved);
+        }
+        else
+        {
+            minimap.remove(slot);
+        }
+
+        sleeping = !woken && !isActive() && !inputChanged && getInputs() == inputs;
+        woken = false;
     }
 
     @Override
     public void render(Graphic g)
     {
-        if (visible && fogOfWar.isVisible(pathfindable))
+        if (onScreen && visible && visibility.isVisible(player.getRace(), pathfindable))
         {
             if (selectable.isSelected())
             {
@@ -387,6 +475,41 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
         }
     }
 
+    /**
+     * Wake entity, so it is fully updated at least until its next update.
+     */
+    public void wake()
+    {
+        sleeping = false;
+        woken = true;
+    }
+
+    /**
+     * Check if sleeping. A sleeping entity does nothing and its transitions inputs are all checked, so it skips its
+     * location, index, minimap and transitions updates until an event wakes it. Only its visibility is still refreshed,
+     * a change of fog visibility waking it once.
+     * <p>
+     * Events waking entity are health and owner changes, commands, production start and end, visibility flag changes,
+     * recycling and its auto attack check.
+     * </p>
+     * 
+     * @return <code>true</code> if sleeping, <code>false</code> else.
+     */
+    public boolean isSleeping()
+    {
+        return sleeping;
+    }
+
+    /**
+     * Check if overlapping the view. Features may skip rendering and animation when not on screen.
+     * 
+     * @return <code>true</code> if on screen, <code>false</code> else.
+     */
+    public boolean isOnScreen()
+    {
+        return onScreen;
+    }
+
     /**
      * Set the visible flag.
      * 
@@ -395,6 +518,7 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
     public void setVisible(boolean visible)
     {
         this.visible = visible;
+        wake();
         collidable.setEnabled(visible);
 
         if (!visible && selector.getSelection().remove(selectable))
@@ -425,6 +549,51 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
         return visible;
     }
 
+    /**
+     * Add element to production queue.
+     * 
+     * @param featurable The element to produce.
+     */
+    public void produce(Featurable featurable)
+    {
+        queue.add(featurable);
+        producer.addToProductionQueue(featurable);
+    }
+
+    /**
+     * Go to building area, and start building once reached.
+     * 
+     * @param building The building to produce, located on its area.
+     * @param area The building area.
+     */
+    public void build(Featurable building, Area area)
+    {
+        producer.setChecker(featurable -> UtilMath.getDistance(featurable.getFeature(Producible.class),
+                                                               transformable) < map.getTileWidth()
+                                          && pathfindable.isDestinationReached());
+        pathfindable.setDestination(area);
+        produce(building);
+    }
+
+    /**
+     * Stop current production and clear queue.
+     */
+    public void stopProduction()
+    {
+        queue.clear();
+        producer.stopProduction();
+    }
+
+    /**
+     * Get the elements in production queue, including the one in production.
+     * 
+     * @return The production queue.
+     */
+    public List<Featurable> getProductionQueue()
+    {
+        return Collections.unmodifiableList(queue);
+    }
+
     /**
      * Get the services reference.
      * 
@@ -445,6 +614,16 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
         return gotoResource;
     }
 
+    /**
+     * Get the resource type to extract, from going to resource until extraction stops.
+     * 
+     * @return The resource type, <code>null</code> if none.
+     */
+    public String getResourceType()
+    {
+        return resourceType;
+    }
+
     /**
      * Get the extracting resource type.
      * 
@@ -465,12 +644,141 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
         return carryResource;
     }
 
+    /**
+     * Restore carried resource, and go to closest warehouse to drop it off.
+     * 
+     * @param type The carried resource type.
+     */
+    public void restoreCarry(String type)
+    {
+        final Tiled warehouse = warehouses.getClosest(stats.getRace(), pathfindable);
+        if (warehouse != null)
+        {
+            pathfindable.setDestination(warehouse);
+        }
+        extractResource = null;
+        carryResource = type;
+        carryRestored = true;
+        inputChanged = true;
+        switchActionExtractCarry();
+    }
+
+    /**
+     * Notify that a state transition input changed, so transitions are checked on next update.
+     */
+    public void notifyInputChanged()
+    {
+        inputChanged = true;
+    }
+
+    /**
+     * Check if a state transition input changed since last call.
+     * <p>
+     * Resource inputs are flagged when written. Moving, attacking, animation, production and health inputs are owned
+     * by other features, so they are packed and compared once instead of being polled by each transition.
+     * </p>
+     * 
+     * @return <code>true</code> if transitions must be checked, <code>false</code> else.
+     */
+    public boolean hasInputChanged()
+    {
+        final int current = getInputs();
+        final boolean changed = inputChanged || current != inputs;
+        inputs = current;
+        inputChanged = false;
+
+        return changed;
+    }
+
+    /**
+     * Pack transitions inputs owned by other features.
+     * 
+     * @return The packed inputs.
+     */
+    private int getInputs()
+    {
+        int current = 0;
+        if (pathfindable.isMoving())
+        {
+            current |= INPUT_MOVING;
+        }
+        if (attacker.isAttacking())
+        {
+            current |= INPUT_ATTACKING;
+        }
+        if (animatable.is(AnimState.FINISHED))
+        {
+            current |= INPUT_ANIM_FINISHED;
+        }
+        if (producible.isProduced())
+        {
+            current |= INPUT_PRODUCED;
+        }
+        if (stats.getHealthPercent() == 0)
+        {
+            current |= INPUT_DEAD;
+        }
+        return current;
+    }
+
     /**
      * Reset states flag.
      */
     public void resetFlags()
     {
         extractResource = null;
+        inputChanged = true;
+    }
+
+    /**
+     * Check if entity is doing something, and must stay awake.
+     * 
+     * @return <code>true</code> if animating, moving, attacking, producing or extracting, <code>false</code> else.
+     */
+    private boolean isActive()
+    {
+        return animatable.is(AnimState.PLAYING)
+               || pathfindable.isMoving()
+               || attacker.isAttacking()
+               || producer.getProgress() > -1
+               || resourceType != null
+               || carryResource != null;
+    }
+
+    /**
+     * Check if close enough to closest warehouse to drop off.
+     * 
+     * @return <code>true</code> if near warehouse, <code>false</code> else.
+     */
+    private boolean isNearWarehouse()
+    {
+        final Tiled warehouse = warehouses.getClosest(stats.getRace(), pathfindable);
+        if (warehouse == null)
+        {
+            return false;
+        }
+        return Util.getDistanceInTile(pathfindable, warehouse) < 1.5;
+    }
+
+    /**
+     * Drop off restored carried resource, as a full load, then go back to resource if still extracting.
+     */
+    private void dropOffRestored()
+    {
+        if (player.owns(this))
+        {
+            player.increaseResource(carryResource, extractor.getExtractionCapacity());
+        }
+        carryRestored = false;
+        carryResource = null;
+        inputChanged = true;
+        switchActionExtractCarry();
+
+        if (resourceType != null)
+        {
+            pathfindable.setDestination(extractor.getResourceLocation());
+            gotoResource = true;
+        }
     }
 
     /**
@@ -478,11 +786,9 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
      */
     private void cutWood()
     {
-        final Tile tile = mapPath.getTile(extractor.getResourceLocation());
-        map.setTile(tile.getInTileX(), tile.getInTileY(), Constant.TILE_NUM_TREE_CUT);
-        mapTransition.resolve(map.getTile(tile.getInTileX(), tile.getInTileY()));
+        forest.cut(mapPath.getTile(extractor.getResourceLocation()));
 
-        final Tile next = Util.getClosestTree(map, mapPath, tile, transformable);
+        final Tile next = forest.next(pathfindable);
         if (next != null)
         {
             extractor.setResource(Constant.RESOURCE_WOOD, next);
@@ -518,7 +824,12 @@ public final class EntityModel extends EntityModelHelper implements Routine, Rec
         selectable.onSelection(false);
         resetFlags();
         carryResource = null;
+        carryRestored = false;
+        resourceType = null;
+        queue.clear();
+        forest.release(pathfindable);
         visible = true;
         stateHandler.changeState(StateIdle.class);
+        wake();
     }
 }
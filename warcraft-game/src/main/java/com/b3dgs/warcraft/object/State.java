@@ -93,18 +93,36 @@ public abstract class State extends StateHelper<EntityModel>
     {
         super.enter();
 
+        model.notifyInputChanged();
         frameOffsetOld = -1;
         updateFrameOffset();
         updateMirror();
     }
 
+    /**
+     * {@inheritDoc} Transitions are only checked when one of their inputs changed, never while sleeping.
+     */
+    @Override
+    public Class<? extends com.b3dgs.lionengine.game.feature.state.State> checkTransitions(
+            Class<? extends com.b3dgs.lionengine.game.feature.state.State> previous)
+    {
+        if (!model.isSleeping() && model.hasInputChanged())
+        {
+            return super.checkTransitions(previous);
+        }
+        return null;
+    }
+
     @Override
     public void update(double extrp)
     {
         super.update(extrp);
 
-        updateFrameOffset();
-        updateMirror();
+        if (!model.isSleeping() && model.isOnScreen())
+        {
+            updateFrameOffset();
+            updateMirror();
+        }
     }
 
     @Override
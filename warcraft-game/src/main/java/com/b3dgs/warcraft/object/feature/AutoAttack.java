@@ -16,13 +16,10 @@
  */
 package com.b3dgs.warcraft.object.feature;
 
-import com.b3dgs.lionengine.Tick;
 import com.b3dgs.lionengine.Updatable;
-import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
-import com.b3dgs.lionengine.game.feature.Handler;
 import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Routine;
 import com.b3dgs.lionengine.game.feature.Services;
@@ -31,27 +28,38 @@ import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.attackable.Attacker;
 import com.b3dgs.lionengine.game.feature.state.StateHandler;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.lionengine.game.feature.tile.map.transition.fog.Fovable;
-import com.b3dgs.warcraft.Race;
 import com.b3dgs.warcraft.Util;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.world.EntityStore;
+import com.b3dgs.warcraft.world.Scheduler;
+import com.b3dgs.warcraft.world.Sensor;
+import com.b3dgs.warcraft.world.SpatialIndex;
 
 /**
  * Check around to attack automatically on sight when idle.
+ * <p>
+ * Target is searched during sense phase, and attack is committed on update. Checks are enabled periodically by
+ * {@link Scheduler}, spread over frames between entities. Checking starts on first update in handler, and stops once
+ * removed from handler.
+ * </p>
  */
 @FeatureInterface
-public class AutoAttack extends FeatureModel implements Routine, Recyclable
+public class AutoAttack extends FeatureModel implements Routine, Recyclable, Sensor
 {
     private static final int CHECK_DELAY = 30;
 
-    private final Tick tick = new Tick();
     private final Updatable checker;
 
-    private final Handler handler = services.get(Handler.class);
-    private final MapTilePath mapPath;
+    private final SpatialIndex index = services.get(SpatialIndex.class);
+    private final Scheduler scheduler = services.get(Scheduler.class);
+    private final Scheduler.Task check = scheduler.create(this::enableCheck);
 
+    private boolean ready;
     private boolean force;
+    private boolean sensed;
+    private Transformable sensedTarget;
 
     @FeatureGet private Fovable fovable;
     @FeatureGet private Attacker attacker;
@@ -59,6 +67,7 @@ public class AutoAttack extends FeatureModel implements Routine, Recyclable
     @FeatureGet private Transformable transformable;
     @FeatureGet private StateHandler state;
     @FeatureGet private EntityStats stats;
+    @FeatureGet private EntityModel model;
 
     /**
      * Create feature.
@@ -71,21 +80,29 @@ public class AutoAttack extends FeatureModel implements Routine, Recyclable
         super(services, setup);
 
         final MapTile map = services.get(MapTile.class);
-        mapPath = map.getFeature(MapTilePath.class);
         checker = extrp ->
         {
-            tick.update(extrp);
             if (canAutoAttack())
             {
-                final Transformable target = findTarget();
-                if (target != null
+                final Transformable target;
+                if (sensed)
+                {
+                    target = sensedTarget;
+                }
+                else
+                {
+                    target = findTarget();
+                }
+                if (isAlive(target)
                     && (Util.getDistanceInTile(map, transformable, target) < 1.5
                         || pathfindable.setDestination(target)))
                 {
                     attacker.attack(target);
                 }
-                tick.restart();
+                ready = false;
             }
+            sensed = false;
+            sensedTarget = null;
         };
     }
 
@@ -99,6 +116,22 @@ public class AutoAttack extends FeatureModel implements Routine, Recyclable
         this.force = force;
     }
 
+    /**
+     * Enable next check and wake entity, or stop checking once entity removed from handler.
+     */
+    private void enableCheck()
+    {
+        if (stats.getSlot() == EntityStore.NONE)
+        {
+            scheduler.cancel(check);
+        }
+        else
+        {
+            ready = true;
+            model.wake();
+        }
+    }
+
     /**
      * Check if can auto attack.
      * 
@@ -106,7 +139,7 @@ public class AutoAttack extends FeatureModel implements Routine, Recyclable
      */
     private boolean canAutoAttack()
     {
-        return tick.elapsed(CHECK_DELAY)
+        return ready
                && stats.getHealthPercent() > 0
                && (force || !pathfindable.isMoving())
                && (attacker.getTarget() == null
@@ -114,77 +147,43 @@ public class AutoAttack extends FeatureModel implements Routine, Recyclable
     }
 
     /**
-     * Find closest target on sight.
+     * Check if target is still alive, as sensed target may have been killed since sense phase.
      * 
-     * @return The target found, <code>null</code> if none.
+     * @param target The target reference (can be <code>null</code>).
+     * @return <code>true</code> if alive target, <code>false</code> else.
      */
-    private Transformable findTarget()
+    private static boolean isAlive(Transformable target)
     {
-        int ray = 1;
-        while (ray < fovable.getInTileFov())
-        {
-            final Transformable transformable = findTarget(ray);
-            if (transformable != null)
-            {
-                return transformable;
-            }
-            ray++;
-        }
-        return null;
+        return target != null && target.getFeature(EntityStats.class).getHealthPercent() > 0;
     }
 
     /**
-     * Find closest target with the specified ray search.
+     * Find closest hostile target on sight, as searched on sense and on update when not sensed.
      * 
-     * @param ray The ray search.
      * @return The target found, <code>null</code> if none.
      */
-    private Transformable findTarget(int ray)
+    public Transformable findTarget()
     {
-        for (int ox = -ray; ox <= ray; ox++)
-        {
-            for (int oy = -ray; oy <= ray; oy++)
-            {
-                final Transformable target = findTarget(ox, oy);
-                if (target != null)
-                {
-                    return target;
-                }
-            }
-        }
-        return null;
+        return index.findHostile(stats.getRace(), stats.getInTileX(), stats.getInTileY(), fovable.getInTileFov() - 1);
     }
 
-    /**
-     * Find closest target on location.
-     * 
-     * @param ox The horizontal location offset.
-     * @param oy The vertical location offset.
-     * @return The target found, <code>null</code> if none.
-     */
-    private Transformable findTarget(int ox, int oy)
+    @Override
+    public void sense()
     {
-        final int tx = pathfindable.getInTileX();
-        final int ty = pathfindable.getInTileY();
-        if (ox != 0 && oy != 0)
+        if (canAutoAttack())
         {
-            for (final Integer id : mapPath.getObjectsId(tx + ox, ty + oy))
-            {
-                final Featurable featurable = handler.get(id);
-                final EntityStats statsTarget = featurable.getFeature(EntityStats.class);
-                final Race race = statsTarget.getRace();
-                if (!race.equals(Race.NEUTRAL) && !stats.getRace().equals(race) && statsTarget.getHealthPercent() > 0)
-                {
-                    return featurable.getFeature(Transformable.class);
-                }
-            }
+            sensedTarget = findTarget();
+            sensed = true;
         }
-        return null;
     }
 
     @Override
     public void update(double extrp)
     {
+        if (!check.isScheduled())
+        {
+            scheduler.repeat(check, CHECK_DELAY);
+        }
         checker.update(extrp);
     }
 
@@ -192,6 +191,8 @@ public class AutoAttack extends FeatureModel implements Routine, Recyclable
     public void recycle()
     {
         force = false;
-        tick.restart();
+        sensed = false;
+        sensedTarget = null;
+        ready = false;
     }
 }
@@ -36,6 +36,7 @@ import com.b3dgs.lionengine.graphic.RenderableVoid;
 import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.SpriteAnimated;
 import com.b3dgs.warcraft.Sfx;
+import com.b3dgs.warcraft.SfxMixer;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.constant.Gfx;
 import com.b3dgs.warcraft.object.EntityModel;
@@ -52,6 +53,7 @@ public class Buildable extends FeatureModel implements Routine, Recyclable, Prod
     private final SpriteAnimated building;
 
     private final Viewer viewer = services.get(Viewer.class);
+    private final SfxMixer mixer = services.get(SfxMixer.class);
 
     private Renderable renderable;
     private int phase;
@@ -93,7 +95,7 @@ public class Buildable extends FeatureModel implements Routine, Recyclable, Prod
         }
         if (phase > 0 && viewer.isViewable(transformable, 0, 0))
         {
-            Sfx.NEUTRAL_CONSTRUCT.play();
+            mixer.play(Sfx.NEUTRAL_CONSTRUCT, transformable);
         }
     }
 
@@ -108,7 +110,10 @@ public class Buildable extends FeatureModel implements Routine, Recyclable, Prod
     @Override
     public void render(Graphic g)
     {
-        renderable.render(g);
+        if (model.isOnScreen())
+        {
+            renderable.render(g);
+        }
     }
 
     @Override
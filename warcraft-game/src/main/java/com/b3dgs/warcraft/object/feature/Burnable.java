@@ -19,7 +19,6 @@ package com.b3dgs.warcraft.object.feature;
 import com.b3dgs.lionengine.Animation;
 import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.Viewer;
-import com.b3dgs.lionengine.game.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
@@ -35,9 +34,15 @@ import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.SpriteAnimated;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.constant.Gfx;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.world.EntityStore;
 
 /**
  * Represents something that can burn.
+ * <p>
+ * Most buildings never burn, so the burning sprite is created on first burn only. A sleeping building keeps burning
+ * while on screen only.
+ * </p>
  */
 @FeatureInterface
 public class Burnable extends FeatureModel implements Routine, Recyclable
@@ -45,16 +50,16 @@ public class Burnable extends FeatureModel implements Routine, Recyclable
     private static final Animation LIGHT = new Animation("light", 1, 4, 0.2, false, true);
     private static final Animation STRONG = new Animation("strong", 5, 8, 0.2, false, true);
 
-    private final SpriteAnimated burn;
-
     private final Viewer viewer = services.get(Viewer.class);
     private final Renderable effect;
 
-    private Renderable renderable;
-    private int oldHealth;
+    private SpriteAnimated burn;
+    private Renderable renderable = RenderableVoid.getInstance();
+    private int health;
+    private double elapsed;
 
     @FeatureGet private Transformable transformable;
-    @FeatureGet private EntityStats stats;
+    @FeatureGet private EntityModel model;
 
     /**
      * Create feature.
@@ -66,9 +71,6 @@ public class Burnable extends FeatureModel implements Routine, Recyclable
     {
         super(services, setup);
 
-        burn = Drawable.loadSpriteAnimated(Gfx.BUILDING_BURNING.getSurface(), 4, 2);
-        burn.setOrigin(Origin.CENTER_BOTTOM);
-
         effect = g ->
         {
             burn.setLocation(viewer, transformable);
@@ -76,58 +78,89 @@ public class Burnable extends FeatureModel implements Routine, Recyclable
         };
     }
 
-    @Override
-    public void prepare(FeatureProvider provider)
+    /**
+     * Get the burning sprite, created on first call.
+     * 
+     * @return The burning sprite.
+     */
+    private SpriteAnimated getBurn()
     {
-        super.prepare(provider);
-
-        burn.setFrameOffsets(-transformable.getWidth() / 2, -transformable.getHeight() / 2);
+        if (burn == null)
+        {
+            burn = Drawable.loadSpriteAnimated(Gfx.BUILDING_BURNING.getSurface(), 4, 2);
+            burn.setOrigin(Origin.CENTER_BOTTOM);
+            burn.setFrameOffsets(-transformable.getWidth() / 2, -transformable.getHeight() / 2);
+        }
+        return burn;
     }
 
-    @Override
-    public void update(double extrp)
+    /**
+     * Notify health percent changed, called by {@link EntityStore}.
+     * 
+     * @param percent The new health percent.
+     */
+    public void notifyHealth(int percent)
     {
-        final int current = stats.getHealthPercent();
-        if (current != oldHealth)
+        if (percent == 0)
         {
-            if (current == 0)
-            {
-                renderable = RenderableVoid.getInstance();
-            }
-            else if (current < Constant.HEALTH_PERCENT_ALERT)
-            {
-                burn.play(STRONG);
-                renderable = effect;
-            }
-            else if (current < Constant.HEALTH_PERCENT_WARN)
-            {
-                burn.play(LIGHT);
-                renderable = effect;
-            }
-            else
+            renderable = RenderableVoid.getInstance();
+        }
+        else if (percent < Constant.HEALTH_PERCENT_ALERT)
+        {
+            getBurn().play(STRONG);
+            renderable = effect;
+        }
+        else if (percent < Constant.HEALTH_PERCENT_WARN)
+        {
+            getBurn().play(LIGHT);
+            renderable = effect;
+        }
+        else
+        {
+            if (burn != null)
             {
                 burn.stop();
-                renderable = RenderableVoid.getInstance();
             }
-            oldHealth = current;
+            renderable = RenderableVoid.getInstance();
         }
-        if (current < Constant.HEALTH_PERCENT_WARN)
+        health = percent;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (model.isSleeping() && !model.isOnScreen())
+        {
+            return;
+        }
+        if (burn != null && health < Constant.HEALTH_PERCENT_WARN)
         {
-            burn.update(extrp);
+            elapsed += extrp;
+            if (model.isOnScreen())
+            {
+                burn.update(elapsed);
+                elapsed = 0.0;
+            }
         }
     }
 
     @Override
     public void render(Graphic g)
     {
-        renderable.render(g);
+        if (model.isOnScreen())
+        {
+            renderable.render(g);
+        }
     }
 
     @Override
     public void recycle()
     {
-        burn.stop();
+        if (burn != null)
+        {
+            burn.stop();
+        }
         renderable = RenderableVoid.getInstance();
-        oldHealth = 0;
+        health = 0;
     }
 }
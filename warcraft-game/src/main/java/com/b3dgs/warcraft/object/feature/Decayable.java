@@ -19,47 +19,47 @@ package com.b3dgs.warcraft.object.feature;
 import com.b3dgs.lionengine.AnimState;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Medias;
-import com.b3dgs.lionengine.Tick;
-import com.b3dgs.lionengine.Updatable;
 import com.b3dgs.lionengine.game.feature.Animatable;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.Recyclable;
-import com.b3dgs.lionengine.game.feature.Routine;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.Spawner;
 import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.state.StateHandler;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.warcraft.object.state.StateDead;
 import com.b3dgs.warcraft.object.state.StateDeadGold;
 import com.b3dgs.warcraft.object.state.StateDeadWood;
+import com.b3dgs.warcraft.world.EntityStore;
+import com.b3dgs.warcraft.world.Pool;
+import com.b3dgs.warcraft.world.Scheduler;
 
 /**
  * Represents something that can decay.
+ * <p>
+ * Nothing is updated until {@link EntityStore} finds an empty health and starts the decay, which leaves corpse after
+ * delay with {@link Scheduler}.
+ * </p>
  */
 @FeatureInterface
-public class Decayable extends FeatureModel implements Routine, Recyclable
+public class Decayable extends FeatureModel implements Recyclable
 {
     private static final String NODE_DECAY = "decay";
     private static final String ATT_CORPSE = "corpse";
     private static final String ATT_DELAY = "delay";
 
-    private final Tick tick = new Tick();
-    private final Updatable checkDead;
-    private final Updatable checkCorpse;
-
-    private Updatable check;
+    private final Scheduler scheduler = services.get(Scheduler.class);
+    private final Scheduler.Task corpse;
+    private final int delay;
 
     @FeatureGet private Identifiable identifiable;
     @FeatureGet private Transformable transformable;
     @FeatureGet private Pathfindable pathfindable;
     @FeatureGet private Animatable animatable;
     @FeatureGet private StateHandler stateHandler;
-    @FeatureGet private EntityStats stats;
 
     /**
      * Create feature.
@@ -71,31 +71,19 @@ public class Decayable extends FeatureModel implements Routine, Recyclable
     {
         super(services, setup);
 
-        final Spawner spawner = services.get(Spawner.class);
+        final Pool pool = services.get(Pool.class);
 
-        final int delay = setup.getInteger(0, ATT_DELAY, NODE_DECAY);
+        delay = setup.getInteger(0, ATT_DELAY, NODE_DECAY);
         final Media media = Medias.create(setup.getString(ATT_CORPSE, NODE_DECAY));
 
-        checkCorpse = extrp ->
-        {
-            tick.update(extrp);
-            if (tick.elapsed(delay))
-            {
-                spawner.spawn(media, transformable)
-                       .getFeature(Effect.class)
-                       .start(transformable.getWidth(), transformable.getHeight());
-                pathfindable.clearPath();
-                identifiable.destroy();
-            }
-        };
-        checkDead = extrp ->
+        corpse = scheduler.create(() ->
         {
-            if (!tick.isStarted() && animatable.is(AnimState.FINISHED) && isDead())
-            {
-                tick.start();
-                check = checkCorpse;
-            }
-        };
+            pool.spawn(media, transformable)
+                .getFeature(Effect.class)
+                .start(transformable.getWidth(), transformable.getHeight());
+            pathfindable.clearPath();
+            identifiable.destroy();
+        });
     }
 
     /**
@@ -110,16 +98,24 @@ public class Decayable extends FeatureModel implements Routine, Recyclable
                || stateHandler.isState(StateDeadWood.class);
     }
 
-    @Override
-    public void update(double extrp)
+    /**
+     * Start decay once dead animation is finished, called by {@link EntityStore} while health is empty.
+     * 
+     * @return <code>true</code> if decay started, <code>false</code> if not yet dead.
+     */
+    public boolean decay()
     {
-        check.update(extrp);
+        if (animatable.is(AnimState.FINISHED) && isDead())
+        {
+            scheduler.schedule(corpse, delay);
+            return true;
+        }
+        return false;
     }
 
     @Override
     public void recycle()
     {
-        tick.stop();
-        check = checkDead;
+        scheduler.cancel(corpse);
     }
 }
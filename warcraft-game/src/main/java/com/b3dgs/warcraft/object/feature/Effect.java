@@ -21,7 +21,6 @@ import java.util.List;
 import com.b3dgs.lionengine.AnimState;
 import com.b3dgs.lionengine.Animation;
 import com.b3dgs.lionengine.AnimatorStateListener;
-import com.b3dgs.lionengine.Tick;
 import com.b3dgs.lionengine.game.AnimationConfig;
 import com.b3dgs.lionengine.game.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Animatable;
@@ -29,28 +28,36 @@ import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Identifiable;
-import com.b3dgs.lionengine.game.feature.Routine;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.rasterable.Rasterable;
 import com.b3dgs.warcraft.Sfx;
+import com.b3dgs.warcraft.SfxMixer;
+import com.b3dgs.warcraft.world.ConfigRegistry;
+import com.b3dgs.warcraft.world.Scheduler;
 
 /**
  * Effect implementation.
  */
 @FeatureInterface
-public final class Effect extends FeatureModel implements Routine
+public final class Effect extends FeatureModel implements Recyclable
 {
     private static final String NODE_EFFECT = "effect";
     private static final String ATT_DELAY = "delay";
     private static final String ANIM_IDLE = "idle";
 
-    private final Tick tick = new Tick();
     private final List<Sfx> sfx;
     private final Animation animation;
     private final int delay;
 
+    private final SfxMixer mixer = services.get(SfxMixer.class);
+    private final Scheduler scheduler = services.get(Scheduler.class);
+    private final Scheduler.Task end = scheduler.create(() -> identifiable.destroy());
+
     @FeatureGet private Identifiable identifiable;
+    @FeatureGet private Transformable transformable;
     @FeatureGet private Animatable animatable;
     @FeatureGet private Rasterable rasterable;
 
@@ -64,7 +71,7 @@ public final class Effect extends FeatureModel implements Routine
     {
         super(services, setup);
 
-        sfx = Sfx.load(setup, Sfx.ATT_DEAD);
+        sfx = services.get(ConfigRegistry.class).get(setup).getSfx(Sfx.ATT_DEAD);
         animation = AnimationConfig.imports(setup).getAnimation(ANIM_IDLE);
         delay = setup.getInteger(-1, ATT_DELAY, NODE_EFFECT);
     }
@@ -79,8 +86,11 @@ public final class Effect extends FeatureModel implements Routine
     {
         rasterable.setFrameOffsets(-width / 2, height / 2);
         animatable.play(animation);
-        Sfx.playRandom(sfx);
-        tick.start();
+        mixer.playRandom(sfx, transformable);
+        if (delay > -1)
+        {
+            scheduler.schedule(end, delay);
+        }
     }
 
     @Override
@@ -101,12 +111,8 @@ public final class Effect extends FeatureModel implements Routine
     }
 
     @Override
-    public void update(double extrp)
+    public void recycle()
     {
-        tick.update(extrp);
-        if (delay > -1 && tick.elapsed(delay))
-        {
-            identifiable.destroy();
-        }
+        scheduler.cancel(end);
     }
 }
@@ -27,9 +27,12 @@ import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
-import com.b3dgs.lionengine.game.feature.tile.map.transition.fog.FogOfWar;
 import com.b3dgs.warcraft.Player;
 import com.b3dgs.warcraft.Sfx;
+import com.b3dgs.warcraft.SfxMixer;
+import com.b3dgs.warcraft.object.EntityConfig;
+import com.b3dgs.warcraft.world.ConfigRegistry;
+import com.b3dgs.warcraft.world.Visibility;
 
 /**
  * Represents sound handler.
@@ -37,12 +40,6 @@ import com.b3dgs.warcraft.Sfx;
 @FeatureInterface
 public class EntitySfx extends FeatureModel
 {
-    private static final String ATT_STARTED = "started";
-    private static final String ATT_PRODUCED = "produced";
-    private static final String ATT_SELECTED = "selected";
-    private static final String ATT_ORDERED = "ordered";
-    private static final String ATT_ATTACKED = "attacked";
-
     private final List<Sfx> started;
     private final List<Sfx> produced;
     private final List<Sfx> selected;
@@ -52,7 +49,8 @@ public class EntitySfx extends FeatureModel
 
     private final Viewer viewer = services.get(Viewer.class);
     private final Player player = services.get(Player.class);
-    private final FogOfWar fogOfWar = services.get(FogOfWar.class);
+    private final Visibility visibility = services.get(Visibility.class);
+    private final SfxMixer mixer = services.get(SfxMixer.class);
 
     @FeatureGet private Transformable transformable;
     @FeatureGet private Pathfindable pathfindable;
@@ -68,12 +66,13 @@ public class EntitySfx extends FeatureModel
     {
         super(services, setup);
 
-        started = Sfx.load(setup, ATT_STARTED);
-        produced = Sfx.load(setup, ATT_PRODUCED);
-        selected = Sfx.load(setup, ATT_SELECTED);
-        ordered = Sfx.load(setup, ATT_ORDERED);
-        attacked = Sfx.load(setup, ATT_ATTACKED);
-        dead = Sfx.load(setup, Sfx.ATT_DEAD);
+        final EntityConfig config = services.get(ConfigRegistry.class).get(setup);
+        started = config.getSfx(Sfx.ATT_STARTED);
+        produced = config.getSfx(Sfx.ATT_PRODUCED);
+        selected = config.getSfx(Sfx.ATT_SELECTED);
+        ordered = config.getSfx(Sfx.ATT_ORDERED);
+        attacked = config.getSfx(Sfx.ATT_ATTACKED);
+        dead = config.getSfx(Sfx.ATT_DEAD);
     }
 
     /**
@@ -83,7 +82,7 @@ public class EntitySfx extends FeatureModel
     {
         if (isVisible())
         {
-            Sfx.playRandom(started);
+            mixer.playRandom(started, transformable);
         }
     }
 
@@ -94,7 +93,7 @@ public class EntitySfx extends FeatureModel
     {
         if (isVisible() && player.owns(this))
         {
-            Sfx.playRandom(produced);
+            mixer.playRandom(produced);
         }
     }
 
@@ -105,7 +104,7 @@ public class EntitySfx extends FeatureModel
     {
         if (isVisible() && player.owns(this))
         {
-            Sfx.playRandom(selected);
+            mixer.playRandom(selected);
         }
     }
 
@@ -116,7 +115,7 @@ public class EntitySfx extends FeatureModel
     {
         if (isVisible())
         {
-            Sfx.playRandom(ordered);
+            mixer.playRandom(ordered);
         }
     }
 
@@ -127,7 +126,7 @@ public class EntitySfx extends FeatureModel
     {
         if (isVisible())
         {
-            Sfx.playRandom(attacked);
+            mixer.playRandom(attacked, transformable);
         }
     }
 
@@ -138,7 +137,7 @@ public class EntitySfx extends FeatureModel
     {
         if (isVisible())
         {
-            Sfx.playRandom(dead);
+            mixer.playRandom(dead, transformable);
         }
     }
 
@@ -149,6 +148,6 @@ public class EntitySfx extends FeatureModel
      */
     private boolean isVisible()
     {
-        return viewer.isViewable(transformable, 0, 0) && fogOfWar.isVisible(pathfindable);
+        return viewer.isViewable(transformable, 0, 0) && visibility.isVisible(player.getRace(), pathfindable);
     }
 }
@@ -19,8 +19,6 @@ package com.b3dgs.warcraft.object.feature;
 import java.util.Locale;
 
 import com.b3dgs.lionengine.Align;
-import com.b3dgs.lionengine.game.Alterable;
-import com.b3dgs.lionengine.game.Bar;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
@@ -33,38 +31,35 @@ import com.b3dgs.lionengine.game.feature.producible.Producer;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathfindableConfig;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.Renderable;
-import com.b3dgs.lionengine.graphic.drawable.Drawable;
 import com.b3dgs.lionengine.graphic.drawable.Image;
 import com.b3dgs.lionengine.graphic.drawable.SpriteFont;
 import com.b3dgs.warcraft.Player;
 import com.b3dgs.warcraft.ProduceProgress;
 import com.b3dgs.warcraft.Race;
-import com.b3dgs.warcraft.Util;
+import com.b3dgs.warcraft.StatsPanel;
 import com.b3dgs.warcraft.constant.Constant;
-import com.b3dgs.warcraft.constant.Gfx;
+import com.b3dgs.warcraft.object.EntityModel;
 import com.b3dgs.warcraft.object.StatsConfig;
+import com.b3dgs.warcraft.world.ConfigRegistry;
+import com.b3dgs.warcraft.world.EntityStore;
 
 /**
- * Icon renderer feature.
+ * Icon renderer feature, and view over entity data stored in {@link EntityStore}.
+ * <p>
+ * Store slot is attached only while entity is in handler. Data are kept locally when detached, so entities waiting in a
+ * production queue or in a pool do not hold a slot.
+ * </p>
  */
 @FeatureInterface
 public class EntityStats extends FeatureModel implements Renderable, Recyclable
 {
     private static final String NODE_NAME = "name";
 
-    private static final int ENTITY_INFO_MARGIN = 4;
     private static final int TEXT_X = 6;
     private static final int TEXT_Y = 98;
-    private static final int BAR_HEALTH_WIDTH = 27;
-    private static final int BAR_HEALTH_HEIGHT = 3;
-    private static final int BAR_HEALTH_X = 31;
-    private static final int BAR_HEALTH_Y = 16;
-
-    private final Image stats = Util.getImage(Gfx.HUD_STATS, Constant.ENTITY_INFO_X, Constant.ENTITY_INFO_Y);
-    private final Bar barHealth = new Bar(BAR_HEALTH_WIDTH, BAR_HEALTH_HEIGHT);
-    private final Alterable health;
+
     private final String name;
-    private final Race race;
+    private Race race;
     private final boolean mover;
     private final Image icon;
     private final Integer layerRefresh;
@@ -73,9 +68,18 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
     private final SpriteFont text = services.get(SpriteFont.class);
     private final Player player = services.get(Player.class);
     private final ProduceProgress progress = services.get(ProduceProgress.class);
+    private final StatsPanel panel = services.get(StatsPanel.class);
+    private final EntityStore store = services.get(EntityStore.class);
+    private final int healthMax;
+
+    private int slot = EntityStore.NONE;
+    private int healthDetached;
+    private int txDetached;
+    private int tyDetached;
 
     @FeatureGet private Layerable layerable;
     @FeatureGet private Producer producer;
+    @FeatureGet private EntityModel model;
 
     /**
      * Create icon provider.
@@ -106,20 +110,19 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
         layerRefresh = Integer.valueOf(layerableConfig.getLayerRefresh());
         layerDisplay = Integer.valueOf(layerableConfig.getLayerDisplay());
 
-        final StatsConfig config = StatsConfig.imports(setup);
-        health = new Alterable(config.getHealth());
+        final StatsConfig config = services.get(ConfigRegistry.class).get(setup).getStats();
         if (Constant.DEBUG)
         {
-            health.setMax(10);
+            healthMax = 10;
         }
+        else
+        {
+            healthMax = config.getHealth();
+        }
+        healthDetached = healthMax;
 
-        icon = Drawable.loadImage(setup.getIcon());
-        icon.setLocation(Constant.ENTITY_INFO_X + ENTITY_INFO_MARGIN, Constant.ENTITY_INFO_Y + ENTITY_INFO_MARGIN);
-
+        icon = panel.getIcon(setup);
         name = setup.getText(NODE_NAME).toUpperCase(Locale.ENGLISH);
-
-        barHealth.setColorForeground(Constant.COLOR_HEALTH_GOOD);
-        barHealth.setLocation((int) (icon.getX() + BAR_HEALTH_X), (int) (icon.getY() + BAR_HEALTH_Y));
     }
 
     /**
@@ -130,9 +133,8 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
      */
     public boolean applyDamages(int damages)
     {
-        health.decrease(damages);
-        updateHealthBar();
-        return health.isEmpty();
+        setHealth(getHealth() - damages);
+        return getHealth() == 0;
     }
 
     /**
@@ -143,9 +145,40 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
      */
     public boolean heal(int value)
     {
-        health.increase(value);
-        updateHealthBar();
-        return health.isFull();
+        setHealth(getHealth() + value);
+        return isFullHealth();
+    }
+
+    /**
+     * Get current health.
+     * 
+     * @return The current health.
+     */
+    public int getHealth()
+    {
+        if (slot == EntityStore.NONE)
+        {
+            return healthDetached;
+        }
+        return store.getHealth(slot);
+    }
+
+    /**
+     * Set current health.
+     * 
+     * @param value The health value.
+     */
+    public void setHealth(int value)
+    {
+        if (slot == EntityStore.NONE)
+        {
+            healthDetached = Math.max(0, Math.min(healthMax, value));
+        }
+        else
+        {
+            store.setHealth(slot, value);
+            model.wake();
+        }
     }
 
     /**
@@ -155,7 +188,15 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
      */
     public int getHealthPercent()
     {
-        return health.getPercent();
+        if (slot != EntityStore.NONE)
+        {
+            return store.getHealthPercent(slot);
+        }
+        if (healthDetached == 0)
+        {
+            return 0;
+        }
+        return Math.max(1, healthDetached * 100 / healthMax);
     }
 
     /**
@@ -165,7 +206,7 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
      */
     public boolean isFullHealth()
     {
-        return health.isFull();
+        return getHealth() == healthMax;
     }
 
     /**
@@ -178,6 +219,21 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
         return race;
     }
 
+    /**
+     * Set the race, when entity changes owner.
+     * 
+     * @param race The new race.
+     */
+    public void setRace(Race race)
+    {
+        this.race = race;
+        if (slot != EntityStore.NONE)
+        {
+            store.setRace(slot, race);
+        }
+        model.wake();
+    }
+
     /**
      * Check if is mover.
      * 
@@ -189,32 +245,94 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
     }
 
     /**
-     * Update bar size and color depending of health percent.
+     * Get the store slot.
+     * 
+     * @return The store slot, {@link EntityStore#NONE} if detached.
+     */
+    public int getSlot()
+    {
+        return slot;
+    }
+
+    /**
+     * Set tile location in store.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if location changed, <code>false</code> else.
      */
-    private void updateHealthBar()
+    public boolean setLocation(int tx, int ty)
     {
-        final int percent = health.getPercent();
-        barHealth.setWidthPercent(percent);
-        if (percent < Constant.HEALTH_PERCENT_ALERT)
+        if (slot == EntityStore.NONE)
         {
-            barHealth.setColorForeground(Constant.COLOR_HEALTH_ALERT);
+            final boolean changed = txDetached != tx || tyDetached != ty;
+            txDetached = tx;
+            tyDetached = ty;
+            return changed;
         }
-        else if (percent < Constant.HEALTH_PERCENT_WARN)
+        return store.setLocation(slot, tx, ty);
+    }
+
+    /**
+     * Get horizontal tile location from store.
+     * 
+     * @return The horizontal tile location.
+     */
+    public int getInTileX()
+    {
+        if (slot == EntityStore.NONE)
         {
-            barHealth.setColorForeground(Constant.COLOR_HEALTH_WARN);
+            return txDetached;
         }
-        else
+        return store.getInTileX(slot);
+    }
+
+    /**
+     * Get vertical tile location from store.
+     * 
+     * @return The vertical tile location.
+     */
+    public int getInTileY()
+    {
+        if (slot == EntityStore.NONE)
+        {
+            return tyDetached;
+        }
+        return store.getInTileY(slot);
+    }
+
+    /**
+     * Allocate store slot, with current health and location.
+     */
+    public void attach()
+    {
+        if (slot == EntityStore.NONE)
+        {
+            slot = store.add(race, healthMax);
+            store.setHealth(slot, healthDetached);
+            store.setLocation(slot, txDetached, tyDetached);
+        }
+    }
+
+    /**
+     * Release store slot, keeping last health and location so references to a removed entity stay consistent.
+     */
+    public void detach()
+    {
+        if (slot != EntityStore.NONE)
         {
-            barHealth.setColorForeground(Constant.COLOR_HEALTH_GOOD);
+            healthDetached = store.getHealth(slot);
+            txDetached = store.getInTileX(slot);
+            tyDetached = store.getInTileY(slot);
+            store.remove(slot);
+            slot = EntityStore.NONE;
         }
     }
 
     @Override
     public void render(Graphic g)
     {
-        stats.render(g);
-        barHealth.render(g);
-        icon.render(g);
+        panel.render(g, icon, getHealthPercent());
         text.draw(g, TEXT_X, TEXT_Y, Align.LEFT, name);
 
         if (producer.getProgress() > -1 && player.getRace().equals(race))
@@ -227,8 +345,7 @@ public class EntityStats extends FeatureModel implements Renderable, Recyclable
     @Override
     public void recycle()
     {
-        health.fill();
-        updateHealthBar();
+        setHealth(healthMax);
         layerable.setLayer(layerRefresh, layerDisplay);
     }
 }
@@ -16,26 +16,35 @@
  */
 package com.b3dgs.warcraft.object.feature;
 
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Medias;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Identifiable;
-import com.b3dgs.lionengine.game.feature.Routine;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
-import com.b3dgs.lionengine.game.feature.Spawner;
 import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.warcraft.constant.Folder;
+import com.b3dgs.warcraft.world.EntityStore;
+import com.b3dgs.warcraft.world.Pool;
+import com.b3dgs.warcraft.world.WarehouseRegistry;
 
 /**
- * Represents something that can explode.
+ * Represents something that can explode, once its health is empty.
+ * <p>
+ * Health is checked by {@link EntityStore} for all explodables at once.
+ * </p>
  */
 @FeatureInterface
-public class Explodable extends FeatureModel implements Routine
+public class Explodable extends FeatureModel
 {
-    private final Spawner spawner = services.get(Spawner.class);
+    private static final Media EXPLODE = Medias.create(Folder.EFFECTS, "explode.xml");
+    private static final Media CORPSE = Medias.create(Folder.EFFECTS, "corpse_building.xml");
+
+    private final Pool pool = services.get(Pool.class);
+    private final WarehouseRegistry warehouses = services.get(WarehouseRegistry.class);
 
     @FeatureGet private Identifiable identifiable;
     @FeatureGet private Transformable transformable;
@@ -53,19 +62,18 @@ public class Explodable extends FeatureModel implements Routine
         super(services, setup);
     }
 
-    @Override
-    public void update(double extrp)
+    /**
+     * Explode and leave corpse.
+     */
+    public void explode()
     {
-        if (stats.getHealthPercent() == 0)
+        pool.spawn(EXPLODE, transformable).getFeature(Effect.class).start(transformable.getWidth(), 0);
+        pool.spawn(CORPSE, transformable).getFeature(Effect.class).start(transformable.getWidth(), 0);
+        pathfindable.clearPath();
+        if (hasFeature(Warehouse.class))
         {
-            spawner.spawn(Medias.create(Folder.EFFECTS, "explode.xml"), transformable)
-                   .getFeature(Effect.class)
-                   .start(transformable.getWidth(), 0);
-            spawner.spawn(Medias.create(Folder.EFFECTS, "corpse_building.xml"), transformable)
-                   .getFeature(Effect.class)
-                   .start(transformable.getWidth(), 0);
-            pathfindable.clearPath();
-            identifiable.destroy();
+            warehouses.remove(getFeature(Warehouse.class), stats.getRace());
         }
+        identifiable.destroy();
     }
 }
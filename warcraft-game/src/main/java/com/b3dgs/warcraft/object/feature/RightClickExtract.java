@@ -16,7 +16,6 @@
  */
 package com.b3dgs.warcraft.object.feature;
 
-import com.b3dgs.lionengine.game.Cursor;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
@@ -33,6 +32,7 @@ import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.warcraft.Player;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.world.FlowField;
 
 /**
  * Right click extraction implementation.
@@ -40,11 +40,11 @@ import com.b3dgs.warcraft.object.EntityModel;
 @FeatureInterface
 public class RightClickExtract extends FeatureModel implements RightClickHandler
 {
-    private final Cursor cursor = services.get(Cursor.class);
     private final Handler handler = services.get(Handler.class);
     private final MapTile map = services.get(MapTile.class);
     private final MapTilePath mapPath = map.getFeature(MapTilePath.class);
     private final Player player = services.get(Player.class);
+    private final FlowField flowField = services.get(FlowField.class);
 
     @FeatureGet private Extractor extractor;
     @FeatureGet private Pathfindable pathfindable;
@@ -78,13 +78,11 @@ public class RightClickExtract extends FeatureModel implements RightClickHandler
     }
 
     @Override
-    public void execute()
+    public void execute(int tx, int ty)
     {
         if (player.owns(this))
         {
-            final int tx = map.getInTileX(cursor);
-            final int ty = map.getInTileY(cursor);
-
+            flowField.cancel(pathfindable);
             pathfindable.setDestination(tx, ty);
 
             if (model.getCarryResource() == null)
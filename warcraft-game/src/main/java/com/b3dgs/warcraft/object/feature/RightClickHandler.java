@@ -26,7 +26,10 @@ import com.b3dgs.lionengine.game.feature.FeatureInterface;
 public interface RightClickHandler extends Feature
 {
     /**
-     * Execute action.
+     * Execute action on tile.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
      */
-    void execute();
+    void execute(int tx, int ty);
 }
@@ -16,7 +16,6 @@
  */
 package com.b3dgs.warcraft.object.feature;
 
-import com.b3dgs.lionengine.game.Cursor;
 import com.b3dgs.lionengine.game.feature.FeatureGet;
 import com.b3dgs.lionengine.game.feature.FeatureInterface;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
@@ -25,6 +24,7 @@ import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.attackable.Attacker;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.warcraft.Player;
+import com.b3dgs.warcraft.world.FlowField;
 
 /**
  * Right click move implementation.
@@ -32,8 +32,8 @@ import com.b3dgs.warcraft.Player;
 @FeatureInterface
 public class RightClickMove extends FeatureModel implements RightClickHandler
 {
-    private final Cursor cursor = services.get(Cursor.class);
     private final Player player = services.get(Player.class);
+    private final FlowField flowField = services.get(FlowField.class);
 
     @FeatureGet private Pathfindable pathfindable;
     @FeatureGet private Attacker attacker;
@@ -51,12 +51,12 @@ public class RightClickMove extends FeatureModel implements RightClickHandler
     }
 
     @Override
-    public void execute()
+    public void execute(int tx, int ty)
     {
         if (player.owns(this))
         {
             attacker.stopAttack();
-            pathfindable.setDestination(cursor);
+            flowField.move(pathfindable, tx, ty);
             sfx.onOrdered();
         }
     }
@@ -34,6 +34,7 @@ import com.b3dgs.lionengine.game.feature.launchable.Launcher;
 import com.b3dgs.lionengine.game.feature.tile.map.Orientable;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.warcraft.Sfx;
+import com.b3dgs.warcraft.SfxMixer;
 
 /**
  * Represents ability to throw something.
@@ -42,6 +43,7 @@ import com.b3dgs.warcraft.Sfx;
 public class Thrower extends FeatureModel implements Routine
 {
     private final Viewer viewer = services.get(Viewer.class);
+    private final SfxMixer mixer = services.get(SfxMixer.class);
 
     @FeatureGet private Attacker attacker;
     @FeatureGet private Launcher launcher;
@@ -81,9 +83,10 @@ public class Thrower extends FeatureModel implements Routine
             {
                 if (other != collidable)
                 {
-                    if (viewer.isViewable(other.getFeature(Transformable.class), 0, 0))
+                    final Transformable hit = other.getFeature(Transformable.class);
+                    if (viewer.isViewable(hit, 0, 0))
                     {
-                        Sfx.NEUTRAL_ARROWHIT.play();
+                        mixer.play(Sfx.NEUTRAL_ARROWHIT, hit);
                     }
                     if (other.getFeature(EntityStats.class).applyDamages(attacker.getAttackDamages()))
                     {
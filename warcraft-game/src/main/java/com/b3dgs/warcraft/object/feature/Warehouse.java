@@ -23,9 +23,10 @@ import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.world.WarehouseRegistry;
 
 /**
- * Represents warehouse storage.
+ * Represents warehouse storage. Registered in {@link WarehouseRegistry} while alive.
  */
 @FeatureInterface
 public class Warehouse extends FeatureModel implements Tiled
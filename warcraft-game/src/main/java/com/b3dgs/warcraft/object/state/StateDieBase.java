@@ -22,12 +22,12 @@ import com.b3dgs.lionengine.game.feature.collidable.Collidable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Hud;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selector;
-import com.b3dgs.lionengine.game.feature.producible.Producer;
 import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
 import com.b3dgs.warcraft.object.EntityModel;
 import com.b3dgs.warcraft.object.State;
 import com.b3dgs.warcraft.object.feature.EntitySfx;
+import com.b3dgs.warcraft.world.FlowField;
 
 /**
  * Die state implementation.
@@ -37,10 +37,10 @@ class StateDieBase extends State
     private final Collidable collidable = model.getFeature(Collidable.class);
     private final Pathfindable pathfindable = model.getFeature(Pathfindable.class);
     private final Extractor extractor = model.getFeature(Extractor.class);
-    private final Producer producer = model.getFeature(Producer.class);
     private final Attacker attacker = model.getFeature(Attacker.class);
     private final Selector selector = model.getServices().get(Selector.class);
     private final Hud hud = model.getServices().get(Hud.class);
+    private final FlowField flowField = model.getServices().get(FlowField.class);
 
     /**
      * Create the state.
@@ -68,8 +68,9 @@ class StateDieBase extends State
         collidable.setEnabled(false);
         pathfindable.stopMoves();
         extractor.stopExtraction();
-        producer.stopProduction();
+        model.stopProduction();
         attacker.stopAttack();
+        flowField.cancel(pathfindable);
         pathfindable.clearPath();
     }
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Medias;
+
+/**
+ * Recorded order, stamped with the frame it is executed on.
+ */
+public final class Command
+{
+    /**
+     * Read command.
+     * 
+     * @param in The input stream.
+     * @return The read command.
+     * @throws IOException If error.
+     */
+    static Command read(DataInputStream in) throws IOException
+    {
+        final int frame = in.readInt();
+        final CommandType type = CommandType.values()[in.readByte()];
+        final int[] ids = new int[in.readUnsignedShort()];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = in.readInt();
+        }
+        final int x = in.readInt();
+        final int y = in.readInt();
+        final Media media;
+        if (in.readBoolean())
+        {
+            media = Medias.create(in.readUTF());
+        }
+        else
+        {
+            media = null;
+        }
+        return new Command(frame, type, ids, x, y, media);
+    }
+
+    /** Execution frame. */
+    private final int frame;
+    /** Command type. */
+    private final CommandType type;
+    /** Ordered entities id. */
+    private final int[] ids;
+    /** Horizontal location. */
+    private final int x;
+    /** Vertical location. */
+    private final int y;
+    /** Produced media, <code>null</code> if none. */
+    private final Media media;
+
+    /**
+     * Create command.
+     * 
+     * @param frame The execution frame.
+     * @param type The command type.
+     * @param ids The ordered entities id.
+     * @param x The horizontal location (in tile, in pixel for {@link CommandType#BUILD}).
+     * @param y The vertical location (in tile, in pixel for {@link CommandType#BUILD}).
+     * @param media The produced media, <code>null</code> if none.
+     */
+    Command(int frame, CommandType type, int[] ids, int x, int y, Media media)
+    {
+        super();
+
+        this.frame = frame;
+        this.type = type;
+        this.ids = ids;
+        this.x = x;
+        this.y = y;
+        this.media = media;
+    }
+
+    /**
+     * Write command.
+     * 
+     * @param out The output stream.
+     * @throws IOException If error.
+     */
+    void write(DataOutputStream out) throws IOException
+    {
+        out.writeInt(frame);
+        out.writeByte(type.ordinal());
+        out.writeShort(ids.length);
+        for (final int id : ids)
+        {
+            out.writeInt(id);
+        }
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeBoolean(media != null);
+        if (media != null)
+        {
+            out.writeUTF(media.getPath());
+        }
+    }
+
+    /**
+     * Get the execution frame.
+     * 
+     * @return The execution frame.
+     */
+    public int getFrame()
+    {
+        return frame;
+    }
+
+    /**
+     * Get the command type.
+     * 
+     * @return The command type.
+     */
+    public CommandType getType()
+    {
+        return type;
+    }
+
+    /**
+     * Get the ordered entities count.
+     * 
+     * @return The ordered entities count.
+     */
+    public int getCount()
+    {
+        return ids.length;
+    }
+
+    /**
+     * Get the ordered entity id.
+     * 
+     * @param index The entity index.
+     * @return The entity id.
+     */
+    public int getId(int index)
+    {
+        return ids[index];
+    }
+
+    /**
+     * Get the horizontal location.
+     * 
+     * @return The horizontal location (in tile, in pixel for {@link CommandType#BUILD}).
+     */
+    public int getX()
+    {
+        return x;
+    }
+
+    /**
+     * Get the vertical location.
+     * 
+     * @return The vertical location (in tile, in pixel for {@link CommandType#BUILD}).
+     */
+    public int getY()
+    {
+        return y;
+    }
+
+    /**
+     * Get the produced media.
+     * 
+     * @return The produced media, <code>null</code> if none.
+     */
+    public Media getMedia()
+    {
+        return media;
+    }
+}
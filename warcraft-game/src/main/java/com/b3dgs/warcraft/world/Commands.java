@@ -0,0 +1,645 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.UtilRandom;
+import com.b3dgs.lionengine.game.FeatureProvider;
+import com.b3dgs.lionengine.game.SizeConfig;
+import com.b3dgs.lionengine.game.Tiled;
+import com.b3dgs.lionengine.game.feature.Factory;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.attackable.Attacker;
+import com.b3dgs.lionengine.game.feature.producible.Producible;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.extractable.Extractor;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.geom.Rectangle;
+import com.b3dgs.warcraft.Player;
+import com.b3dgs.warcraft.object.CostConfig;
+import com.b3dgs.warcraft.object.EntityConfig;
+import com.b3dgs.warcraft.object.EntityModel;
+import com.b3dgs.warcraft.object.feature.EntitySfx;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.feature.Reparable;
+import com.b3dgs.warcraft.object.feature.RightClickExtract;
+import com.b3dgs.warcraft.object.feature.RightClickHandler;
+
+/**
+ * Command log, recording and replaying player and AI orders.
+ * <p>
+ * Issued orders are not applied immediately: they are stamped with the next frame and executed at the start of it,
+ * before any entity update. Replay executes logged orders at the same point, so a replayed world started with the
+ * same seed reaches the same state.
+ * </p>
+ * <p>
+ * Entities are referenced by a replay id, counting entities added to handler in order since commands creation. Unlike
+ * the engine identifiable id, it does not depend on entities created before in the process, so a replay can run in the
+ * same process as its recording.
+ * </p>
+ */
+public class Commands implements Updatable, HandlerListener
+{
+    /** No replay id. */
+    public static final int NONE = -1;
+
+    /** Log magic number. */
+    private static final int MAGIC = 0x57_52_43_4C;
+    /** Log format version. */
+    private static final short VERSION = 2;
+    /** Error invalid log. */
+    private static final String ERROR_LOG = "Invalid command log";
+
+    /** Entities by engine identifiable id, as referenced by map. */
+    private final Map<Integer, Featurable> entities = new HashMap<>();
+    /** Replay id by engine identifiable id. */
+    private final Map<Integer, Integer> replayIds = new HashMap<>();
+    /** Entities by replay id. */
+    private final Map<Integer, Featurable> replayEntities = new HashMap<>();
+    private final List<Featurable> units = new ArrayList<>();
+    private final List<Featurable> targets = new ArrayList<>();
+    private final List<Command> pending = new ArrayList<>();
+    private final List<Command> log = new ArrayList<>();
+    private final Factory factory;
+    private final MapTilePath mapPath;
+    private final Player player;
+    private final FlowField flowField;
+    private final ConfigRegistry configs;
+    private final WarehouseRegistry warehouses;
+
+    private long seed;
+    private int nextReplayId;
+    private int frame;
+    private int next;
+    private boolean replaying;
+
+    /**
+     * Create commands.
+     * 
+     * @param services The services reference.
+     */
+    public Commands(Services services)
+    {
+        super();
+
+        factory = services.get(Factory.class);
+        mapPath = services.get(MapTile.class).getFeature(MapTilePath.class);
+        player = services.get(Player.class);
+        flowField = services.get(FlowField.class);
+        configs = services.get(ConfigRegistry.class);
+        warehouses = services.get(WarehouseRegistry.class);
+        services.get(Handler.class).addListener(this);
+    }
+
+    /**
+     * Start recording orders. Random generator is seeded.
+     * 
+     * @param seed The random seed.
+     */
+    public void record(long seed)
+    {
+        this.seed = seed;
+        UtilRandom.setSeed(seed);
+        log.clear();
+        pending.clear();
+        frame = 0;
+        next = 0;
+        replaying = false;
+    }
+
+    /**
+     * Start replaying orders from log. Random generator is seeded with recorded seed, and issued orders are ignored.
+     * 
+     * @param media The log media.
+     * @throws LionEngineException If unable to read log.
+     */
+    public void replay(Media media)
+    {
+        log.clear();
+        try (DataInputStream in = new DataInputStream(media.getInputStream()))
+        {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION)
+            {
+                throw new LionEngineException(media, ERROR_LOG);
+            }
+            seed = in.readLong();
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++)
+            {
+                log.add(Command.read(in));
+            }
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, media);
+        }
+        UtilRandom.setSeed(seed);
+        pending.clear();
+        frame = 0;
+        next = 0;
+        replaying = true;
+    }
+
+    /**
+     * Save recorded orders.
+     * 
+     * @param media The log media.
+     * @throws LionEngineException If unable to save log.
+     */
+    public void save(Media media)
+    {
+        try (DataOutputStream out = new DataOutputStream(media.getOutputStream()))
+        {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(seed);
+            out.writeInt(log.size());
+            for (final Command command : log)
+            {
+                command.write(out);
+            }
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, media);
+        }
+    }
+
+    /**
+     * Issue an order without location.
+     * 
+     * @param type The command type.
+     * @param ordered The ordered entities.
+     */
+    public void issue(CommandType type, List<? extends FeatureProvider> ordered)
+    {
+        issue(type, ordered, 0, 0, null);
+    }
+
+    /**
+     * Issue an order on location.
+     * 
+     * @param type The command type.
+     * @param ordered The ordered entities.
+     * @param x The horizontal location (in tile, in pixel for {@link CommandType#BUILD}).
+     * @param y The vertical location (in tile, in pixel for {@link CommandType#BUILD}).
+     */
+    public void issue(CommandType type, List<? extends FeatureProvider> ordered, int x, int y)
+    {
+        issue(type, ordered, x, y, null);
+    }
+
+    /**
+     * Issue an order. Ignored while replaying.
+     * 
+     * @param type The command type.
+     * @param ordered The ordered entities.
+     * @param x The horizontal location (in tile, in pixel for {@link CommandType#BUILD}).
+     * @param y The vertical location (in tile, in pixel for {@link CommandType#BUILD}).
+     * @param media The produced media, <code>null</code> if none.
+     */
+    public void issue(CommandType type, List<? extends FeatureProvider> ordered, int x, int y, Media media)
+    {
+        if (!replaying && !ordered.isEmpty())
+        {
+            final int n = ordered.size();
+            final int[] ids = new int[n];
+            for (int i = 0; i < n; i++)
+            {
+                ids[i] = getReplayId(ordered.get(i));
+            }
+            pending.add(new Command(frame, type, ids, x, y, media));
+        }
+    }
+
+    /**
+     * Get entity replay id.
+     * 
+     * @param entity The entity reference (can be <code>null</code>).
+     * @return The replay id, {@link #NONE} if not in handler.
+     */
+    public int getReplayId(FeatureProvider entity)
+    {
+        if (entity == null)
+        {
+            return NONE;
+        }
+        final Integer id = replayIds.get(entity.getFeature(Identifiable.class).getId());
+        if (id == null)
+        {
+            return NONE;
+        }
+        return id.intValue();
+    }
+
+    /**
+     * Check if replaying.
+     * 
+     * @return <code>true</code> if replaying, <code>false</code> if recording.
+     */
+    public boolean isReplaying()
+    {
+        return replaying;
+    }
+
+    /**
+     * Get current frame.
+     * 
+     * @return The current frame.
+     */
+    public int getFrame()
+    {
+        return frame;
+    }
+
+    /**
+     * Execute command.
+     * 
+     * @param command The command to execute.
+     */
+    private void execute(Command command)
+    {
+        units.clear();
+        final int n = command.getCount();
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable unit = replayEntities.get(Integer.valueOf(command.getId(i)));
+            if (unit != null)
+            {
+                units.add(unit);
+                if (unit.hasFeature(EntityModel.class))
+                {
+                    unit.getFeature(EntityModel.class).wake();
+                }
+            }
+        }
+        if (units.isEmpty())
+        {
+            return;
+        }
+
+        switch (command.getType())
+        {
+            case MOVE:
+                move(command.getX(), command.getY());
+                break;
+            case ATTACK:
+                attack(command.getX(), command.getY());
+                break;
+            case REPAIR:
+                repair(command.getX(), command.getY());
+                break;
+            case EXTRACT:
+                extract(command.getX(), command.getY());
+                break;
+            case RIGHT_CLICK:
+                rightClick(command.getX(), command.getY());
+                break;
+            case CARRY:
+                carry();
+                break;
+            case STOP:
+                stop();
+                break;
+            case PRODUCE:
+                produce(command.getMedia());
+                break;
+            case BUILD:
+                build(command.getMedia(), command.getX(), command.getY());
+                break;
+            default:
+                throw new LionEngineException(command.getType());
+        }
+    }
+
+    /**
+     * Get entities on tile, ordered by replay id so orders do not depend on engine ids.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return The entities found.
+     */
+    private List<Featurable> getTargets(int tx, int ty)
+    {
+        targets.clear();
+        for (final Integer id : mapPath.getObjectsId(tx, ty))
+        {
+            final Featurable target = entities.get(id);
+            if (target != null)
+            {
+                targets.add(target);
+            }
+        }
+        targets.sort(Comparator.comparingInt(this::getReplayId));
+        return targets;
+    }
+
+    /**
+     * Move units to tile.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void move(int tx, int ty)
+    {
+        final int n = units.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable unit = units.get(i);
+            unit.getFeature(Attacker.class).stopAttack();
+            unit.getFeature(Extractor.class).stopExtraction();
+            flowField.move(unit.getFeature(Pathfindable.class), tx, ty);
+
+            if (i == 0)
+            {
+                unit.getFeature(EntitySfx.class).onOrdered();
+            }
+        }
+    }
+
+    /**
+     * Attack entities on tile.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void attack(int tx, int ty)
+    {
+        final int n = units.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable unit = units.get(i);
+            for (final Featurable target : getTargets(tx, ty))
+            {
+                if (unit != target)
+                {
+                    unit.getFeature(Attacker.class).attack(target.getFeature(Transformable.class));
+                }
+            }
+
+            if (i == 0)
+            {
+                unit.getFeature(EntitySfx.class).onOrdered();
+            }
+        }
+    }
+
+    /**
+     * Repair allied entities on tile.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void repair(int tx, int ty)
+    {
+        final int n = units.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable unit = units.get(i);
+            for (final Featurable target : getTargets(tx, ty))
+            {
+                if (target.hasFeature(Reparable.class)
+                    && unit.getFeature(EntityStats.class)
+                           .getRace()
+                           .equals(target.getFeature(EntityStats.class).getRace())
+                    && target.getFeature(EntityStats.class).getHealthPercent() < 100)
+                {
+                    unit.getFeature(Attacker.class).attack(target.getFeature(Transformable.class));
+                }
+            }
+
+            if (i == 0)
+            {
+                unit.getFeature(EntitySfx.class).onOrdered();
+            }
+        }
+    }
+
+    /**
+     * Extract resource on tile.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void extract(int tx, int ty)
+    {
+        final int n = units.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable unit = units.get(i);
+            if (unit.hasFeature(RightClickExtract.class))
+            {
+                unit.getFeature(RightClickExtract.class).execute(tx, ty);
+            }
+        }
+    }
+
+    /**
+     * Execute right click shortcut on tile.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void rightClick(int tx, int ty)
+    {
+        final int n = units.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable unit = units.get(i);
+            if (unit.hasFeature(RightClickHandler.class))
+            {
+                unit.getFeature(RightClickHandler.class).execute(tx, ty);
+            }
+        }
+    }
+
+    /**
+     * Carry resources to closest warehouse.
+     */
+    private void carry()
+    {
+        final int n = units.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable unit = units.get(i);
+            final Pathfindable pathfindable = unit.getFeature(Pathfindable.class);
+            final Tiled warehouse = warehouses.getClosest(unit.getFeature(EntityStats.class).getRace(), pathfindable);
+            if (warehouse != null)
+            {
+                flowField.cancel(pathfindable);
+                pathfindable.setDestination(warehouse);
+                if (i == 0)
+                {
+                    unit.getFeature(EntitySfx.class).onOrdered();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop current orders.
+     */
+    private void stop()
+    {
+        final int n = units.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Featurable unit = units.get(i);
+            final Pathfindable pathfindable = unit.getFeature(Pathfindable.class);
+            flowField.cancel(pathfindable);
+            pathfindable.stopMoves();
+            unit.getFeature(Attacker.class).stopAttack();
+            unit.getFeature(Extractor.class).stopExtraction();
+
+            if (i == 0)
+            {
+                unit.getFeature(EntitySfx.class).onOrdered();
+            }
+        }
+    }
+
+    /**
+     * Produce unit. Player pays production cost, AI does not.
+     * 
+     * @param target The unit to produce.
+     */
+    private void produce(Media target)
+    {
+        if (!player.owns(units.get(0)))
+        {
+            for (final Featurable unit : units)
+            {
+                unit.getFeature(EntityModel.class).produce(factory.create(target));
+            }
+            return;
+        }
+
+        final CostConfig config = configs.get(target).getCost();
+        if (player.isAvailableFood()
+            && player.isAvailableWood(config.getWood())
+            && player.isAvailableGold(config.getGold()))
+        {
+            player.decreaseResource(config.getWood(), config.getGold());
+
+            final Featurable entity = factory.create(target);
+            entity.getFeature(EntityModel.class).setVisible(false);
+
+            for (final Featurable unit : units)
+            {
+                final Transformable transformable = unit.getFeature(Transformable.class);
+                entity.getFeature(Producible.class)
+                      .setLocation(transformable.getX() + transformable.getWidth() / 2,
+                                   transformable.getY() + transformable.getHeight() / 2);
+                unit.getFeature(EntityModel.class).produce(entity);
+            }
+        }
+    }
+
+    /**
+     * Build building at location.
+     * 
+     * @param target The building to produce.
+     * @param x The horizontal location in pixel.
+     * @param y The vertical location in pixel.
+     */
+    private void build(Media target, int x, int y)
+    {
+        final EntityConfig entity = configs.get(target);
+        final CostConfig config = entity.getCost();
+        final Rectangle area = new Rectangle(x, y, entity.getSize().getWidth(), entity.getSize().getHeight());
+
+        for (final Featurable unit : units)
+        {
+            player.decreaseResource(config.getWood(), config.getGold());
+
+            final Featurable building = factory.create(target);
+            building.getFeature(Producible.class).setLocation(area.getX(), area.getY());
+
+            unit.getFeature(EntityModel.class).build(building, area);
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (replaying)
+        {
+            while (next < log.size() && log.get(next).getFrame() <= frame)
+            {
+                execute(log.get(next));
+                next++;
+            }
+        }
+        else
+        {
+            final int n = pending.size();
+            for (int i = 0; i < n; i++)
+            {
+                final Command command = pending.get(i);
+                execute(command);
+                log.add(command);
+            }
+            pending.clear();
+        }
+        frame++;
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(Identifiable.class))
+        {
+            final Integer id = featurable.getFeature(Identifiable.class).getId();
+            final Integer replayId = Integer.valueOf(nextReplayId++);
+            entities.put(id, featurable);
+            replayIds.put(id, replayId);
+            replayEntities.put(replayId, featurable);
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        if (featurable.hasFeature(Identifiable.class))
+        {
+            final Integer id = featurable.getFeature(Identifiable.class).getId();
+            entities.remove(id);
+            final Integer replayId = replayIds.remove(id);
+            if (replayId != null)
+            {
+                replayEntities.remove(replayId);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.Configurer;
+import com.b3dgs.warcraft.Race;
+import com.b3dgs.warcraft.Unit;
+import com.b3dgs.warcraft.object.EntityConfig;
+
+/**
+ * Registry of compiled entity configurations, per media.
+ * <p>
+ * All entities are compiled on creation, so buttons, commands and features query their cost, size, sfx and unlocks
+ * without parsing any XML. Other medias, such as effects, are compiled on first query.
+ * </p>
+ */
+public class ConfigRegistry
+{
+    private final Map<Media, EntityConfig> configs = new HashMap<>();
+
+    /**
+     * Create registry and compile all entities.
+     * 
+     * @throws LionEngineException If invalid entity configuration.
+     */
+    public ConfigRegistry()
+    {
+        super();
+
+        for (final Race race : Race.values())
+        {
+            for (final Unit unit : Unit.values())
+            {
+                final Media media = race.get(unit);
+                if (media.exists())
+                {
+                    configs.put(media, EntityConfig.imports(new Configurer(media)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get compiled configuration.
+     * 
+     * @param media The configuration media.
+     * @return The compiled configuration.
+     * @throws LionEngineException If invalid configuration.
+     */
+    public EntityConfig get(Media media)
+    {
+        EntityConfig config = configs.get(media);
+        if (config == null)
+        {
+            config = EntityConfig.imports(new Configurer(media));
+            configs.put(media, config);
+        }
+        return config;
+    }
+
+    /**
+     * Get compiled configuration.
+     * 
+     * @param configurer The configurer reference.
+     * @return The compiled configuration.
+     * @throws LionEngineException If invalid configuration.
+     */
+    public EntityConfig get(Configurer configurer)
+    {
+        EntityConfig config = configs.get(configurer.getMedia());
+        if (config == null)
+        {
+            config = EntityConfig.imports(configurer);
+            configs.put(configurer.getMedia(), config);
+        }
+        return config;
+    }
+}
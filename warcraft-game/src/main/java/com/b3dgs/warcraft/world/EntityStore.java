@@ -0,0 +1,481 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.Race;
+import com.b3dgs.warcraft.object.feature.Burnable;
+import com.b3dgs.warcraft.object.feature.Decayable;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.feature.Explodable;
+
+/**
+ * Store of hot entity data, kept in primitive arrays indexed by a dense slot.
+ * <p>
+ * Health, race, tile location and tile size of each entity are owned by the store, {@link EntityStats} being a view
+ * over its slot. Features depending only on these data register to the store, which checks them all in a single loop
+ * per system instead of each entity checking itself on update. Other indexes ({@link SpatialIndex},
+ * {@link WorldMinimap}) reference entities by their store slot and read these data from the store.
+ * </p>
+ * <p>
+ * Slot is allocated when entity is added to handler, and released when removed, to be reused by next added entity.
+ * Features checked by the store are registered with the slot, so a recycled entity is checked again. Listeners are
+ * notified on release, so slot is not reused while still indexed.
+ * </p>
+ * <p>
+ * State is not stored, as state transitions are already checked only on input changes.
+ * </p>
+ */
+public class EntityStore implements Updatable, HandlerListener
+{
+    /** No slot value. */
+    public static final int NONE = -1;
+
+    /** Initial slots capacity. */
+    private static final int INITIAL_SLOTS = 64;
+    /** Used slot flag. */
+    private static final int FLAG_USED = 1;
+    /** Explodable registered flag. */
+    private static final int FLAG_EXPLODABLE = 1 << 1;
+    /** Burnable registered flag. */
+    private static final int FLAG_BURNABLE = 1 << 2;
+    /** Decayable registered flag. */
+    private static final int FLAG_DECAYABLE = 1 << 3;
+
+    private int[] healths = new int[INITIAL_SLOTS];
+    private int[] healthsMax = new int[INITIAL_SLOTS];
+    private int[] races = new int[INITIAL_SLOTS];
+    private int[] txs = new int[INITIAL_SLOTS];
+    private int[] tys = new int[INITIAL_SLOTS];
+    private int[] tws = new int[INITIAL_SLOTS];
+    private int[] ths = new int[INITIAL_SLOTS];
+    private Transformable[] transformables = new Transformable[INITIAL_SLOTS];
+    private int[] flags = new int[INITIAL_SLOTS];
+    private int[] burnPercents = new int[INITIAL_SLOTS];
+    private Explodable[] explodables = new Explodable[INITIAL_SLOTS];
+    private Burnable[] burnables = new Burnable[INITIAL_SLOTS];
+    private Decayable[] decayables = new Decayable[INITIAL_SLOTS];
+    private int[] free = new int[INITIAL_SLOTS];
+    private int freeCount;
+    private int slots;
+
+    private final List<EntityStoreListener> listeners = new ArrayList<>();
+
+    /**
+     * Create store.
+     * 
+     * @param services The services reference.
+     */
+    public EntityStore(Services services)
+    {
+        super();
+
+        services.get(Handler.class).addListener(this);
+    }
+
+    /**
+     * Add a listener notified on slot release.
+     * 
+     * @param listener The listener to add.
+     */
+    public void addListener(EntityStoreListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Allocate entity slot, with full health.
+     * 
+     * @param race The entity race.
+     * @param healthMax The entity max health.
+     * @return The allocated slot.
+     */
+    public int add(Race race, int healthMax)
+    {
+        final int slot;
+        if (freeCount > 0)
+        {
+            slot = free[--freeCount];
+        }
+        else
+        {
+            if (slots == flags.length)
+            {
+                grow();
+            }
+            slot = slots++;
+        }
+        healths[slot] = healthMax;
+        healthsMax[slot] = healthMax;
+        races[slot] = race.ordinal();
+        txs[slot] = 0;
+        tys[slot] = 0;
+        tws[slot] = 1;
+        ths[slot] = 1;
+        flags[slot] = FLAG_USED;
+
+        return slot;
+    }
+
+    /**
+     * Release entity slot.
+     * 
+     * @param slot The entity slot ({@link #NONE} is ignored).
+     */
+    public void remove(int slot)
+    {
+        if (slot == NONE)
+        {
+            return;
+        }
+        final int n = listeners.size();
+        for (int i = 0; i < n; i++)
+        {
+            listeners.get(i).notifySlotReleased(slot);
+        }
+        flags[slot] = 0;
+        transformables[slot] = null;
+        explodables[slot] = null;
+        burnables[slot] = null;
+        decayables[slot] = null;
+
+        if (freeCount == free.length)
+        {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * Get current health.
+     * 
+     * @param slot The entity slot.
+     * @return The current health.
+     */
+    public int getHealth(int slot)
+    {
+        return healths[slot];
+    }
+
+    /**
+     * Set current health, clamped between 0 and max health.
+     * 
+     * @param slot The entity slot.
+     * @param health The health value.
+     */
+    public void setHealth(int slot, int health)
+    {
+        healths[slot] = Math.max(0, Math.min(healthsMax[slot], health));
+    }
+
+    /**
+     * Get max health.
+     * 
+     * @param slot The entity slot.
+     * @return The max health.
+     */
+    public int getHealthMax(int slot)
+    {
+        return healthsMax[slot];
+    }
+
+    /**
+     * Get current health percent. Only an empty health gives <code>0</code>.
+     * 
+     * @param slot The entity slot.
+     * @return The current health percent.
+     */
+    public int getHealthPercent(int slot)
+    {
+        final int health = healths[slot];
+        if (health == 0)
+        {
+            return 0;
+        }
+        return Math.max(1, health * 100 / healthsMax[slot]);
+    }
+
+    /**
+     * Get the race index.
+     * 
+     * @param slot The entity slot.
+     * @return The race index.
+     */
+    public int getRace(int slot)
+    {
+        return races[slot];
+    }
+
+    /**
+     * Set the race.
+     * 
+     * @param slot The entity slot.
+     * @param race The entity race.
+     */
+    public void setRace(int slot, Race race)
+    {
+        races[slot] = race.ordinal();
+    }
+
+    /**
+     * Get slots capacity, any allocated slot being lower.
+     * 
+     * @return The slots capacity.
+     */
+    public int getCapacity()
+    {
+        return flags.length;
+    }
+
+    /**
+     * Set tile location.
+     * 
+     * @param slot The entity slot.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if location changed, <code>false</code> else.
+     */
+    public boolean setLocation(int slot, int tx, int ty)
+    {
+        if (txs[slot] == tx && tys[slot] == ty)
+        {
+            return false;
+        }
+        txs[slot] = tx;
+        tys[slot] = ty;
+        return true;
+    }
+
+    /**
+     * Get horizontal tile location.
+     * 
+     * @param slot The entity slot.
+     * @return The horizontal tile location.
+     */
+    public int getInTileX(int slot)
+    {
+        return txs[slot];
+    }
+
+    /**
+     * Get vertical tile location.
+     * 
+     * @param slot The entity slot.
+     * @return The vertical tile location.
+     */
+    public int getInTileY(int slot)
+    {
+        return tys[slot];
+    }
+
+    /**
+     * Get width in tile.
+     * 
+     * @param slot The entity slot.
+     * @return The width in tile.
+     */
+    public int getInTileWidth(int slot)
+    {
+        return tws[slot];
+    }
+
+    /**
+     * Get height in tile.
+     * 
+     * @param slot The entity slot.
+     * @return The height in tile.
+     */
+    public int getInTileHeight(int slot)
+    {
+        return ths[slot];
+    }
+
+    /**
+     * Get the entity transformable.
+     * 
+     * @param slot The entity slot.
+     * @return The entity transformable, <code>null</code> if none.
+     */
+    public Transformable getTransformable(int slot)
+    {
+        return transformables[slot];
+    }
+
+    /**
+     * Register explodable, exploded once health is empty.
+     * 
+     * @param slot The entity slot.
+     * @param explodable The explodable reference.
+     */
+    public void setExplodable(int slot, Explodable explodable)
+    {
+        explodables[slot] = explodable;
+        flags[slot] |= FLAG_EXPLODABLE;
+    }
+
+    /**
+     * Register burnable, notified on health percent change.
+     * 
+     * @param slot The entity slot.
+     * @param burnable The burnable reference.
+     */
+    public void setBurnable(int slot, Burnable burnable)
+    {
+        burnables[slot] = burnable;
+        burnPercents[slot] = 0;
+        flags[slot] |= FLAG_BURNABLE;
+    }
+
+    /**
+     * Register decayable, checked once health is empty until decay started.
+     * 
+     * @param slot The entity slot.
+     * @param decayable The decayable reference.
+     */
+    public void setDecayable(int slot, Decayable decayable)
+    {
+        decayables[slot] = decayable;
+        flags[slot] |= FLAG_DECAYABLE;
+    }
+
+    /**
+     * Grow slots storage.
+     */
+    private void grow()
+    {
+        final int capacity = flags.length * 2;
+        healths = Arrays.copyOf(healths, capacity);
+        healthsMax = Arrays.copyOf(healthsMax, capacity);
+        races = Arrays.copyOf(races, capacity);
+        txs = Arrays.copyOf(txs, capacity);
+        tys = Arrays.copyOf(tys, capacity);
+        tws = Arrays.copyOf(tws, capacity);
+        ths = Arrays.copyOf(ths, capacity);
+        transformables = Arrays.copyOf(transformables, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        burnPercents = Arrays.copyOf(burnPercents, capacity);
+        explodables = Arrays.copyOf(explodables, capacity);
+        burnables = Arrays.copyOf(burnables, capacity);
+        decayables = Arrays.copyOf(decayables, capacity);
+    }
+
+    /**
+     * Explode registered entities with empty health.
+     */
+    private void updateExplodables()
+    {
+        for (int slot = 0; slot < slots; slot++)
+        {
+            if ((flags[slot] & FLAG_EXPLODABLE) != 0 && healths[slot] == 0)
+            {
+                flags[slot] &= ~FLAG_EXPLODABLE;
+                explodables[slot].explode();
+            }
+        }
+    }
+
+    /**
+     * Notify registered burnables on health percent change.
+     */
+    private void updateBurnables()
+    {
+        for (int slot = 0; slot < slots; slot++)
+        {
+            if ((flags[slot] & FLAG_BURNABLE) != 0)
+            {
+                final int percent = getHealthPercent(slot);
+                if (percent != burnPercents[slot])
+                {
+                    burnPercents[slot] = percent;
+                    burnables[slot].notifyHealth(percent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Start decay of registered entities with empty health.
+     */
+    private void updateDecayables()
+    {
+        for (int slot = 0; slot < slots; slot++)
+        {
+            if ((flags[slot] & FLAG_DECAYABLE) != 0 && healths[slot] == 0 && decayables[slot].decay())
+            {
+                flags[slot] &= ~FLAG_DECAYABLE;
+            }
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        updateExplodables();
+        updateBurnables();
+        updateDecayables();
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityStats.class))
+        {
+            final EntityStats stats = featurable.getFeature(EntityStats.class);
+            stats.attach();
+
+            final int slot = stats.getSlot();
+            if (featurable.hasFeature(Pathfindable.class))
+            {
+                final Pathfindable pathfindable = featurable.getFeature(Pathfindable.class);
+                transformables[slot] = featurable.getFeature(Transformable.class);
+                tws[slot] = pathfindable.getInTileWidth();
+                ths[slot] = pathfindable.getInTileHeight();
+            }
+            if (featurable.hasFeature(Explodable.class))
+            {
+                setExplodable(slot, featurable.getFeature(Explodable.class));
+            }
+            if (featurable.hasFeature(Burnable.class))
+            {
+                setBurnable(slot, featurable.getFeature(Burnable.class));
+            }
+            if (featurable.hasFeature(Decayable.class))
+            {
+                setDecayable(slot, featurable.getFeature(Decayable.class));
+            }
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        if (featurable.hasFeature(EntityStats.class))
+        {
+            featurable.getFeature(EntityStats.class).detach();
+        }
+    }
+}
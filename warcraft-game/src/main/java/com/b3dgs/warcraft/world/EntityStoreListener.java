@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+/**
+ * Notified when an {@link EntityStore} slot is released, so data indexed by slot can be cleared before the slot is
+ * reused.
+ */
+public interface EntityStoreListener
+{
+    /**
+     * Notify slot released. Slot data are still readable during notification.
+     * 
+     * @param slot The released slot.
+     */
+    void notifySlotReleased(int slot);
+}
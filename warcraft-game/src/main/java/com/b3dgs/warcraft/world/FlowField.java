@@ -0,0 +1,558 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.attackable.Attacker;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+
+/**
+ * Shared flow fields for move orders.
+ * <p>
+ * A distance field is computed once per destination with a reverse Dijkstra from the destination over walkable tiles,
+ * and shared by all units ordered to this destination. Each unit then steps tile by tile to the neighbour with the
+ * lowest distance. A step targets an adjacent tile, so its {@link Pathfindable} resolves it without searching, while
+ * keeping its movement and collisions with moving units. A full path search to destination is only done for the final
+ * approach, when the field cannot be followed anymore: unit out of field, or step blocked for {@link #WAIT} frames.
+ * </p>
+ * <p>
+ * A field is kept while at least one unit follows it. Following stops when destination is reached, when the unit
+ * attacks or dies, when it is removed from handler, or when another order is given through
+ * {@link #cancel(Pathfindable)}.
+ * </p>
+ */
+public class FlowField implements Updatable, HandlerListener
+{
+    /** Orthogonal move cost. */
+    private static final int COST_ORTHOGONAL = 10;
+    /** Diagonal move cost. */
+    private static final int COST_DIAGONAL = 14;
+    /** Unreachable distance. */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    /** Frames to wait while step is blocked, before final approach. */
+    private static final int WAIT = 30;
+    /** Neighbours horizontal offsets. */
+    private static final int[] OX =
+    {
+        1, -1, 0, 0, 1, 1, -1, -1
+    };
+    /** Neighbours vertical offsets. */
+    private static final int[] OY =
+    {
+        0, 0, 1, -1, 1, -1, 1, -1
+    };
+    /** Number of orthogonal neighbours, first in offsets. */
+    private static final int ORTHOGONALS = 4;
+
+    private final List<Field> fields = new ArrayList<>();
+    private final List<Follower> followers = new ArrayList<>();
+    private final MapTile map;
+    private final MapTilePath mapPath;
+    private final Handler handler;
+
+    private int[] heap = new int[0];
+    private int heapSize;
+
+    /**
+     * Create service.
+     * 
+     * @param services The services reference.
+     */
+    public FlowField(Services services)
+    {
+        super();
+
+        map = services.get(MapTile.class);
+        mapPath = map.getFeature(MapTilePath.class);
+        handler = services.get(Handler.class);
+        handler.addListener(this);
+    }
+
+    /**
+     * Move unit to destination by following the shared field of this destination.
+     * 
+     * @param pathfindable The unit to move.
+     * @param tx The horizontal destination tile.
+     * @param ty The vertical destination tile.
+     */
+    public void move(Pathfindable pathfindable, int tx, int ty)
+    {
+        cancel(pathfindable);
+        if (!isInMap(tx, ty))
+        {
+            return;
+        }
+
+        final Field field = getField(tx, ty);
+        final Follower follower = new Follower(pathfindable, field);
+        field.followers++;
+        followers.add(follower);
+
+        if (!step(follower))
+        {
+            remove(followers.size() - 1);
+        }
+    }
+
+    /**
+     * Stop following field for this unit, if following.
+     * 
+     * @param pathfindable The unit reference.
+     */
+    public void cancel(Pathfindable pathfindable)
+    {
+        for (int i = followers.size() - 1; i >= 0; i--)
+        {
+            if (followers.get(i).pathfindable == pathfindable)
+            {
+                remove(i);
+            }
+        }
+    }
+
+    /**
+     * Get the shared field of destination, computing it if needed.
+     * 
+     * @param tx The horizontal destination tile.
+     * @param ty The vertical destination tile.
+     * @return The destination field.
+     */
+    private Field getField(int tx, int ty)
+    {
+        final int n = fields.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Field field = fields.get(i);
+            if (field.tx == tx && field.ty == ty)
+            {
+                return field;
+            }
+        }
+        final Field field = new Field(tx, ty, compute(tx, ty));
+        fields.add(field);
+        return field;
+    }
+
+    /**
+     * Remove follower, and its field if not followed anymore.
+     * 
+     * @param index The follower index.
+     */
+    private void remove(int index)
+    {
+        final Follower follower = followers.remove(index);
+        follower.field.followers--;
+        if (follower.field.followers == 0)
+        {
+            fields.remove(follower.field);
+        }
+    }
+
+    /**
+     * Send follower to the neighbour tile with lowest distance. A blocked step is retried on next frame.
+     * 
+     * @param follower The follower reference.
+     * @return <code>true</code> if still following, <code>false</code> if done.
+     */
+    private boolean step(Follower follower)
+    {
+        final Field field = follower.field;
+        final Pathfindable pathfindable = follower.pathfindable;
+        final int x = pathfindable.getInTileX();
+        final int y = pathfindable.getInTileY();
+        if (!isInMap(x, y) || x == field.tx && y == field.ty)
+        {
+            return false;
+        }
+        final int width = map.getInTileWidth();
+        final int current = x + y * width;
+        final int next = getNext(field.distances, current);
+        if (field.distances[current] == UNREACHABLE || next == current)
+        {
+            return approach(follower);
+        }
+
+        final int tx = next % width;
+        final int ty = next / width;
+        if (pathfindable.setDestination(tx, ty))
+        {
+            follower.stepX = tx;
+            follower.stepY = ty;
+            follower.idle = 0;
+            follower.blocked = 0;
+            return true;
+        }
+        follower.stepX = x;
+        follower.stepY = y;
+        follower.blocked++;
+        if (follower.blocked > WAIT)
+        {
+            return approach(follower);
+        }
+        return true;
+    }
+
+    /**
+     * Stop following field and search a full path to destination.
+     * 
+     * @param follower The follower reference.
+     * @return Always <code>false</code>, as not following anymore.
+     */
+    private static boolean approach(Follower follower)
+    {
+        follower.pathfindable.setDestination(follower.field.tx, follower.field.ty);
+        return false;
+    }
+
+    /**
+     * Check if follower needs its next step: current step reached, or not moving anymore (blocked).
+     * 
+     * @param follower The follower reference.
+     * @return <code>true</code> if next step needed, <code>false</code> else.
+     */
+    private boolean isStepNeeded(Follower follower)
+    {
+        final Pathfindable pathfindable = follower.pathfindable;
+        if (pathfindable.getInTileX() == follower.stepX && pathfindable.getInTileY() == follower.stepY)
+        {
+            return true;
+        }
+        if (pathfindable.isMoving())
+        {
+            follower.idle = 0;
+            return false;
+        }
+        follower.idle++;
+        return follower.idle > 1;
+    }
+
+    /**
+     * Check if tile is inside map.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return <code>true</code> if inside, <code>false</code> else.
+     */
+    private boolean isInMap(int tx, int ty)
+    {
+        return tx >= 0 && ty >= 0 && tx < map.getInTileWidth() && ty < map.getInTileHeight();
+    }
+
+    /**
+     * Get the neighbour with lowest distance.
+     * 
+     * @param distances The field distances.
+     * @param index The current tile index.
+     * @return The next tile index, current if no closer neighbour.
+     */
+    private int getNext(int[] distances, int index)
+    {
+        final int width = map.getInTileWidth();
+        final int height = map.getInTileHeight();
+        final int x = index % width;
+        final int y = index / width;
+
+        int best = index;
+        for (int n = 0; n < OX.length; n++)
+        {
+            final int nx = x + OX[n];
+            final int ny = y + OY[n];
+            if (nx >= 0 && ny >= 0 && nx < width && ny < height)
+            {
+                final int neighbour = nx + ny * width;
+                if (distances[neighbour] < distances[best])
+                {
+                    best = neighbour;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Compute distance field to destination.
+     * 
+     * @param tx The horizontal destination tile.
+     * @param ty The vertical destination tile.
+     * @return The distances, {@link #UNREACHABLE} for blocked or unreachable tiles.
+     */
+    private int[] compute(int tx, int ty)
+    {
+        final int width = map.getInTileWidth();
+        final int height = map.getInTileHeight();
+        final int total = width * height;
+        final int[] distances = new int[total];
+        Arrays.fill(distances, UNREACHABLE);
+
+        final boolean[] walkable = new boolean[total];
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                walkable[x + y * width] = isWalkable(x, y);
+            }
+        }
+
+        if (heap.length < total * OX.length)
+        {
+            heap = new int[total * OX.length];
+        }
+        heapSize = 0;
+
+        final int start = tx + ty * width;
+        distances[start] = 0;
+        push(distances, start);
+
+        while (heapSize > 0)
+        {
+            final int current = pop(distances);
+            final int x = current % width;
+            final int y = current / width;
+            for (int n = 0; n < OX.length; n++)
+            {
+                final int nx = x + OX[n];
+                final int ny = y + OY[n];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height)
+                {
+                    continue;
+                }
+                final int neighbour = nx + ny * width;
+                if (!walkable[neighbour]
+                    || n >= ORTHOGONALS && (!walkable[nx + y * width] || !walkable[x + ny * width]))
+                {
+                    continue;
+                }
+                final int cost = distances[current] + (n < ORTHOGONALS ? COST_ORTHOGONAL : COST_DIAGONAL);
+                if (cost < distances[neighbour])
+                {
+                    distances[neighbour] = cost;
+                    push(distances, neighbour);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Check if tile is walkable: ground without static entity.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return <code>true</code> if walkable, <code>false</code> else.
+     */
+    private boolean isWalkable(int tx, int ty)
+    {
+        final Tile tile = map.getTile(tx, ty);
+        if (tile == null || !Constant.CATEGORY_GROUND.equals(mapPath.getCategory(tile)))
+        {
+            return false;
+        }
+        for (final Integer id : mapPath.getObjectsId(tx, ty))
+        {
+            final Featurable featurable = handler.get(id);
+            if (!featurable.getFeature(EntityStats.class).isMover())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Push tile in heap, ordered by distance. A tile may be pushed many times, outdated entries are skipped on pop.
+     * 
+     * @param distances The distances reference.
+     * @param index The tile index.
+     */
+    private void push(int[] distances, int index)
+    {
+        int child = heapSize++;
+        heap[child] = index;
+        while (child > 0)
+        {
+            final int parent = (child - 1) / 2;
+            if (distances[heap[parent]] <= distances[heap[child]])
+            {
+                break;
+            }
+            swap(parent, child);
+            child = parent;
+        }
+    }
+
+    /**
+     * Pop tile with lowest distance from heap.
+     * 
+     * @param distances The distances reference.
+     * @return The tile index.
+     */
+    private int pop(int[] distances)
+    {
+        final int top = heap[0];
+        heap[0] = heap[--heapSize];
+        int parent = 0;
+        while (true)
+        {
+            final int left = parent * 2 + 1;
+            final int right = left + 1;
+            int lowest = parent;
+            if (left < heapSize && distances[heap[left]] < distances[heap[lowest]])
+            {
+                lowest = left;
+            }
+            if (right < heapSize && distances[heap[right]] < distances[heap[lowest]])
+            {
+                lowest = right;
+            }
+            if (lowest == parent)
+            {
+                break;
+            }
+            swap(parent, lowest);
+            parent = lowest;
+        }
+        return top;
+    }
+
+    /**
+     * Swap heap entries.
+     * 
+     * @param a The first entry.
+     * @param b The second entry.
+     */
+    private void swap(int a, int b)
+    {
+        final int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        for (int i = followers.size() - 1; i >= 0; i--)
+        {
+            final Follower follower = followers.get(i);
+            if (follower.attacker.getTarget() != null || follower.stats.getHealthPercent() == 0)
+            {
+                remove(i);
+            }
+            else if (isStepNeeded(follower) && !step(follower))
+            {
+                remove(i);
+            }
+        }
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        if (featurable.hasFeature(Pathfindable.class))
+        {
+            cancel(featurable.getFeature(Pathfindable.class));
+        }
+    }
+
+    /**
+     * Distance field to a destination.
+     */
+    private static final class Field
+    {
+        /** Horizontal destination. */
+        private final int tx;
+        /** Vertical destination. */
+        private final int ty;
+        /** Distance to destination of each tile. */
+        private final int[] distances;
+        /** Number of followers. */
+        private int followers;
+
+        /**
+         * Create field.
+         * 
+         * @param tx The horizontal destination.
+         * @param ty The vertical destination.
+         * @param distances The distances.
+         */
+        Field(int tx, int ty, int[] distances)
+        {
+            super();
+
+            this.tx = tx;
+            this.ty = ty;
+            this.distances = distances;
+        }
+    }
+
+    /**
+     * Unit following a field.
+     */
+    private static final class Follower
+    {
+        /** Unit pathfindable. */
+        private final Pathfindable pathfindable;
+        /** Unit attacker. */
+        private final Attacker attacker;
+        /** Unit stats. */
+        private final EntityStats stats;
+        /** Followed field. */
+        private final Field field;
+        /** Horizontal step destination. */
+        private int stepX;
+        /** Vertical step destination. */
+        private int stepY;
+        /** Frames spent without moving. */
+        private int idle;
+        /** Consecutive blocked steps. */
+        private int blocked;
+
+        /**
+         * Create follower.
+         * 
+         * @param pathfindable The unit pathfindable.
+         * @param field The followed field.
+         */
+        Follower(Pathfindable pathfindable, Field field)
+        {
+            super();
+
+            this.pathfindable = pathfindable;
+            attacker = pathfindable.getFeature(Attacker.class);
+            stats = pathfindable.getFeature(EntityStats.class);
+            this.field = field;
+        }
+    }
+}
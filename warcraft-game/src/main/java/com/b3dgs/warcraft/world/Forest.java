@@ -0,0 +1,580 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.game.feature.tile.map.transition.MapTileTransition;
+import com.b3dgs.warcraft.constant.Constant;
+
+/**
+ * Forest index, handing out trees to cut to workers.
+ * <p>
+ * Built on map load: trees are grouped by connected components, and only frontier trees (touching ground) can be
+ * reserved. Frontier trees are counted per cell, so nearest search skips cells without free tree. Each worker reserves
+ * one tree at a time, which spreads workers on the forest edge instead of stopping on the first cut without
+ * neighbour tree.
+ * </p>
+ * <p>
+ * Cutting a tree updates the frontier around it. Components are not split on cut, they are only used to prefer trees
+ * from the same forest at equal distance.
+ * </p>
+ * <p>
+ * Transitions of cut trees are not resolved on cut, but queued and resolved once per update for all affected tiles.
+ * Tree tiles are resolved from a table indexed by their 8 neighbours mask, filled on load from the resolved map. Masks
+ * not yet known fall back to map transition, whose result is added to the table.
+ * </p>
+ */
+public class Forest implements Updatable
+{
+    /** Not a tree value. */
+    private static final int NONE = -1;
+    /** Conflicting transition value, always resolved by map transition. */
+    private static final int CONFLICT = -2;
+    /** Cell size in tile. */
+    private static final int CELL_SIZE = 8;
+    /** Neighbours masks count. */
+    private static final int MASKS = 256;
+
+    private final Map<Pathfindable, Integer> reservations = new HashMap<>();
+    private final MapTile map;
+    private final MapTilePath mapPath;
+    private final MapTileTransition mapTransition;
+    private final TerrainCache terrain;
+
+    private int width;
+    private int height;
+    private int cellsWidth;
+    private int cellsHeight;
+
+    /** Tree component per tile, {@link #NONE} if not a tree. */
+    private int[] components = new int[0];
+    /** Frontier flag per tile. */
+    private boolean[] frontier = new boolean[0];
+    /** Reserved flag per tile. */
+    private boolean[] reserved = new boolean[0];
+    /** Free frontier trees count per cell. */
+    private int[] free = new int[0];
+    /** Tree tile number per neighbours mask, {@link #NONE} if unknown. */
+    private final int[] transitions = new int[MASKS];
+    /** Pending transition flag per tile. */
+    private boolean[] pending = new boolean[0];
+    /** Pending transition tiles. */
+    private int[] pendings = new int[0];
+    /** Pending transition tiles count. */
+    private int pendingsCount;
+    /** Cut tiles since last update. */
+    private int[] cuts = new int[0];
+    /** Cut tiles count. */
+    private int cutsCount;
+
+    /** Best tree found by current search. */
+    private int found;
+    /** Best tree score found by current search. */
+    private long foundScore;
+
+    /**
+     * Create forest.
+     * 
+     * @param map The map reference.
+     * @param terrain The terrain reference.
+     */
+    public Forest(MapTile map, TerrainCache terrain)
+    {
+        super();
+
+        this.map = map;
+        this.terrain = terrain;
+        mapPath = map.getFeature(MapTilePath.class);
+        mapTransition = map.getFeature(MapTileTransition.class);
+    }
+
+    /**
+     * Build index from current map. Must be called once map is loaded.
+     */
+    public void load()
+    {
+        width = map.getInTileWidth();
+        height = map.getInTileHeight();
+        cellsWidth = (width + CELL_SIZE - 1) / CELL_SIZE;
+        cellsHeight = (height + CELL_SIZE - 1) / CELL_SIZE;
+
+        components = new int[width * height];
+        frontier = new boolean[width * height];
+        reserved = new boolean[width * height];
+        free = new int[cellsWidth * cellsHeight];
+        pending = new boolean[width * height];
+        pendings = new int[width * height];
+        pendingsCount = 0;
+        cuts = new int[width * height];
+        cutsCount = 0;
+        reservations.clear();
+
+        Arrays.fill(components, NONE);
+        final boolean[] trees = new boolean[width * height];
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                trees[ty * width + tx] = is(tx, ty, Constant.CATEGORY_TREE);
+            }
+        }
+
+        final int[] queue = new int[width * height];
+        int component = 0;
+        for (int i = 0; i < trees.length; i++)
+        {
+            if (trees[i] && components[i] == NONE)
+            {
+                fill(trees, queue, i, component);
+                component++;
+            }
+        }
+
+        Arrays.fill(transitions, NONE);
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                updateFrontier(tx, ty);
+                learn(tx, ty);
+            }
+        }
+    }
+
+    /**
+     * Reserve the nearest free frontier tree for worker, releasing its previous reservation.
+     * 
+     * @param worker The worker reference.
+     * @return The reserved tree, <code>null</code> if none.
+     */
+    public Tile next(Pathfindable worker)
+    {
+        final Integer previous = reservations.remove(worker);
+        int component = NONE;
+        if (previous != null)
+        {
+            component = components[previous.intValue()];
+            release(previous.intValue());
+        }
+
+        final int tx = worker.getInTileX();
+        final int ty = worker.getInTileY();
+        final int cx = Math.max(0, Math.min(cellsWidth - 1, tx / CELL_SIZE));
+        final int cy = Math.max(0, Math.min(cellsHeight - 1, ty / CELL_SIZE));
+        final int rings = Math.max(cellsWidth, cellsHeight);
+
+        found = NONE;
+        foundScore = Long.MAX_VALUE;
+        for (int ring = 0; ring < rings; ring++)
+        {
+            final long min = (long) (ring - 1) * CELL_SIZE;
+            if (found != NONE && min > 0 && min * min * 2 > foundScore)
+            {
+                break;
+            }
+            for (int y = cy - ring; y <= cy + ring; y++)
+            {
+                final int step;
+                if (y == cy - ring || y == cy + ring)
+                {
+                    step = 1;
+                }
+                else
+                {
+                    step = Math.max(1, ring * 2);
+                }
+                for (int x = cx - ring; x <= cx + ring; x += step)
+                {
+                    if (x >= 0 && y >= 0 && x < cellsWidth && y < cellsHeight && free[y * cellsWidth + x] > 0)
+                    {
+                        search(x, y, tx, ty, component);
+                    }
+                }
+            }
+        }
+
+        if (found == NONE)
+        {
+            return null;
+        }
+        reserve(found);
+        reservations.put(worker, Integer.valueOf(found));
+        return map.getTile(found % width, found / width);
+    }
+
+    /**
+     * Release worker reservation.
+     * 
+     * @param worker The worker reference.
+     */
+    public void release(Pathfindable worker)
+    {
+        final Integer previous = reservations.remove(worker);
+        if (previous != null)
+        {
+            release(previous.intValue());
+        }
+    }
+
+    /**
+     * Cut tree, queue its transitions and update frontier around.
+     * 
+     * @param tile The tree to cut.
+     */
+    public void cut(Tile tile)
+    {
+        final int tx = tile.getInTileX();
+        final int ty = tile.getInTileY();
+        map.setTile(tx, ty, Constant.TILE_NUM_TREE_CUT);
+        cuts[cutsCount++] = ty * width + tx;
+
+        for (int y = ty - 1; y <= ty + 1; y++)
+        {
+            for (int x = tx - 1; x <= tx + 1; x++)
+            {
+                if (x >= 0 && y >= 0 && x < width && y < height)
+                {
+                    final int index = y * width + x;
+                    if (components[index] != NONE && !is(x, y, Constant.CATEGORY_TREE))
+                    {
+                        setFrontier(index, false);
+                        components[index] = NONE;
+                    }
+                }
+            }
+        }
+        for (int y = ty - 1; y <= ty + 1; y++)
+        {
+            for (int x = tx - 1; x <= tx + 1; x++)
+            {
+                if (x >= 0 && y >= 0 && x < width && y < height)
+                {
+                    updateFrontier(x, y);
+
+                    final int index = y * width + x;
+                    if (!pending[index])
+                    {
+                        pending[index] = true;
+                        pendings[pendingsCount++] = index;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolve transitions of pending tiles, falling back to map transition if one of them has an unknown mask.
+     */
+    private void resolve()
+    {
+        boolean known = true;
+        for (int i = 0; i < pendingsCount && known; i++)
+        {
+            final int index = pendings[i];
+            final int tx = index % width;
+            final int ty = index / width;
+            known = !is(tx, ty, Constant.CATEGORY_TREE) || transitions[getMask(tx, ty)] > NONE;
+        }
+
+        if (known)
+        {
+            for (int i = 0; i < pendingsCount; i++)
+            {
+                final int index = pendings[i];
+                final int tx = index % width;
+                final int ty = index / width;
+                if (is(tx, ty, Constant.CATEGORY_TREE))
+                {
+                    final int number = transitions[getMask(tx, ty)];
+                    if (map.getTile(tx, ty).getNumber() != number)
+                    {
+                        map.setTile(tx, ty, number);
+                    }
+                }
+            }
+        }
+        else
+        {
+            for (int i = 0; i < cutsCount; i++)
+            {
+                mapTransition.resolve(map.getTile(cuts[i] % width, cuts[i] / width));
+            }
+        }
+
+        for (int i = 0; i < pendingsCount; i++)
+        {
+            final int index = pendings[i];
+            final int tx = index % width;
+            final int ty = index / width;
+            if (!known)
+            {
+                learn(tx, ty);
+            }
+            terrain.invalidate(tx, ty);
+            pending[index] = false;
+        }
+        pendingsCount = 0;
+        cutsCount = 0;
+    }
+
+    /**
+     * Add tree tile number to transitions table for its neighbours mask. Different numbers for a same mask mark it as
+     * conflicting.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void learn(int tx, int ty)
+    {
+        if (is(tx, ty, Constant.CATEGORY_TREE))
+        {
+            final int mask = getMask(tx, ty);
+            final int number = map.getTile(tx, ty).getNumber();
+            if (transitions[mask] == NONE)
+            {
+                transitions[mask] = number;
+            }
+            else if (transitions[mask] != number)
+            {
+                transitions[mask] = CONFLICT;
+            }
+        }
+    }
+
+    /**
+     * Get neighbours mask of tile, one bit per neighbour tree.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return The neighbours mask.
+     */
+    private int getMask(int tx, int ty)
+    {
+        int mask = 0;
+        int bit = 1;
+        for (int y = ty - 1; y <= ty + 1; y++)
+        {
+            for (int x = tx - 1; x <= tx + 1; x++)
+            {
+                if (x != tx || y != ty)
+                {
+                    if (is(x, y, Constant.CATEGORY_TREE))
+                    {
+                        mask |= bit;
+                    }
+                    bit <<= 1;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Search best free frontier tree in cell, closest first then same component.
+     * 
+     * @param cx The horizontal cell.
+     * @param cy The vertical cell.
+     * @param tx The horizontal tile origin.
+     * @param ty The vertical tile origin.
+     * @param component The preferred component.
+     */
+    private void search(int cx, int cy, int tx, int ty, int component)
+    {
+        final int endY = Math.min(height, (cy + 1) * CELL_SIZE);
+        final int endX = Math.min(width, (cx + 1) * CELL_SIZE);
+        for (int y = cy * CELL_SIZE; y < endY; y++)
+        {
+            for (int x = cx * CELL_SIZE; x < endX; x++)
+            {
+                final int index = y * width + x;
+                if (frontier[index] && !reserved[index])
+                {
+                    final long dx = x - tx;
+                    final long dy = y - ty;
+                    long current = (dx * dx + dy * dy) * 2;
+                    if (components[index] != component)
+                    {
+                        current++;
+                    }
+                    if (current < foundScore)
+                    {
+                        foundScore = current;
+                        found = index;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Assign component to all trees connected to start.
+     * 
+     * @param trees The tree flags.
+     * @param queue The work queue.
+     * @param start The start tree index.
+     * @param component The component id.
+     */
+    private void fill(boolean[] trees, int[] queue, int start, int component)
+    {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        components[start] = component;
+        while (head < tail)
+        {
+            final int index = queue[head++];
+            final int tx = index % width;
+            final int ty = index / width;
+            for (int y = ty - 1; y <= ty + 1; y++)
+            {
+                for (int x = tx - 1; x <= tx + 1; x++)
+                {
+                    if (x >= 0 && y >= 0 && x < width && y < height)
+                    {
+                        final int next = y * width + x;
+                        if (trees[next] && components[next] == NONE)
+                        {
+                            components[next] = component;
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Update frontier flag of tile, a frontier tree touches ground.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void updateFrontier(int tx, int ty)
+    {
+        final int index = ty * width + tx;
+        if (components[index] == NONE || frontier[index])
+        {
+            return;
+        }
+        for (int y = ty - 1; y <= ty + 1; y++)
+        {
+            for (int x = tx - 1; x <= tx + 1; x++)
+            {
+                if (is(x, y, Constant.CATEGORY_GROUND))
+                {
+                    setFrontier(index, true);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Set frontier flag, updating cell free count.
+     * 
+     * @param index The tile index.
+     * @param value The frontier flag.
+     */
+    private void setFrontier(int index, boolean value)
+    {
+        if (frontier[index] != value)
+        {
+            frontier[index] = value;
+            if (!reserved[index])
+            {
+                free[getCell(index)] += value ? 1 : -1;
+            }
+        }
+    }
+
+    /**
+     * Reserve tree.
+     * 
+     * @param index The tree index.
+     */
+    private void reserve(int index)
+    {
+        reserved[index] = true;
+        if (frontier[index])
+        {
+            free[getCell(index)]--;
+        }
+    }
+
+    /**
+     * Release tree.
+     * 
+     * @param index The tree index.
+     */
+    private void release(int index)
+    {
+        if (reserved[index])
+        {
+            reserved[index] = false;
+            if (frontier[index])
+            {
+                free[getCell(index)]++;
+            }
+        }
+    }
+
+    /**
+     * Get cell of tile index.
+     * 
+     * @param index The tile index.
+     * @return The cell index.
+     */
+    private int getCell(int index)
+    {
+        return index / width / CELL_SIZE * cellsWidth + index % width / CELL_SIZE;
+    }
+
+    /**
+     * Check tile category.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @param category The expected category.
+     * @return <code>true</code> if tile is inside map and of category, <code>false</code> else.
+     */
+    private boolean is(int tx, int ty, String category)
+    {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height)
+        {
+            return false;
+        }
+        final Tile tile = map.getTile(tx, ty);
+        return tile != null && category.equals(mapPath.getCategory(tile));
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (pendingsCount > 0)
+        {
+            resolve();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Localizable;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.Feature;
+import com.b3dgs.lionengine.game.feature.Factory;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Recyclable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+
+/**
+ * Pool of short living featurables, such as effects and corpses, per media.
+ * <p>
+ * Featurables spawned from the pool are kept when removed from handler, and recycled on next spawn of the same media
+ * instead of being created again. A mass death or a large explosion does not create featurables once the pool is
+ * warm.
+ * </p>
+ */
+public class Pool implements HandlerListener
+{
+    private static final int MAX_FREE = 64;
+
+    /**
+     * Recycle all featurable recyclable features.
+     * 
+     * @param featurable The featurable to recycle.
+     */
+    private static void recycle(Featurable featurable)
+    {
+        for (final Feature feature : featurable.getFeatures())
+        {
+            if (feature instanceof Recyclable)
+            {
+                ((Recyclable) feature).recycle();
+            }
+        }
+    }
+
+    private final Map<Media, Deque<Featurable>> pools = new HashMap<>();
+    private final Factory factory;
+    private final Handler handler;
+
+    /**
+     * Create pool.
+     * 
+     * @param services The services reference.
+     */
+    public Pool(Services services)
+    {
+        super();
+
+        factory = services.get(Factory.class);
+        handler = services.get(Handler.class);
+        handler.addListener(this);
+    }
+
+    /**
+     * Create featurables in advance, so first spawns are recycled too.
+     * 
+     * @param media The featurable media.
+     * @param count The number of featurables to create.
+     */
+    public void warm(Media media, int count)
+    {
+        final Deque<Featurable> free = pools.computeIfAbsent(media, m -> new ArrayDeque<>());
+        for (int i = free.size(); i < count; i++)
+        {
+            free.push(factory.create(media));
+        }
+    }
+
+    /**
+     * Spawn featurable at location, recycled from pool if possible.
+     * 
+     * @param media The featurable media.
+     * @param localizable The spawn location.
+     * @return The spawned featurable.
+     */
+    public Featurable spawn(Media media, Localizable localizable)
+    {
+        final Deque<Featurable> free = pools.computeIfAbsent(media, m -> new ArrayDeque<>());
+        final Featurable featurable;
+        if (free.isEmpty())
+        {
+            featurable = factory.create(media);
+        }
+        else
+        {
+            featurable = free.pop();
+            recycle(featurable);
+        }
+        featurable.getFeature(Transformable.class).teleport(localizable.getX(), localizable.getY());
+        handler.add(featurable);
+
+        return featurable;
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        final Deque<Featurable> free = pools.get(featurable.getMedia());
+        if (free != null && free.size() < MAX_FREE)
+        {
+            free.push(featurable);
+        }
+    }
+}
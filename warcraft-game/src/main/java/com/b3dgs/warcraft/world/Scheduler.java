@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import com.b3dgs.lionengine.Updatable;
+
+/**
+ * Shared scheduler of delayed and periodic actions, counted in ticks.
+ * <p>
+ * Tasks are stored in a wheel of buckets, one per tick, so each update only visits the tasks of the current bucket.
+ * Longer delays wrap around the wheel and count remaining rounds. Tasks are linked in their bucket, so scheduling and
+ * cancelling do not allocate.
+ * </p>
+ * <p>
+ * Periodic tasks without explicit delay are started on the least loaded bucket of their period, so a batch of entities
+ * registered on the same frame is spread over frames instead of running all at once.
+ * </p>
+ */
+public class Scheduler implements Updatable
+{
+    /** Wheel size in tick, must be a power of two. */
+    private static final int WHEEL_SIZE = 256;
+    /** Bucket index mask. */
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    /** Not scheduled bucket value. */
+    private static final int NONE = -1;
+
+    private final Task[] buckets = new Task[WHEEL_SIZE];
+    private final int[] sizes = new int[WHEEL_SIZE];
+    private double elapsed;
+    private int current;
+    private Task cursor;
+
+    /**
+     * Create scheduler.
+     */
+    public Scheduler()
+    {
+        super();
+    }
+
+    /**
+     * Create a task, to be scheduled later.
+     * 
+     * @param action The task action.
+     * @return The created task.
+     */
+    public Task create(Runnable action)
+    {
+        return new Task(action);
+    }
+
+    /**
+     * Schedule task once. Task is cancelled first if already scheduled.
+     * 
+     * @param task The task reference.
+     * @param delay The delay in tick before running.
+     */
+    public void schedule(Task task, int delay)
+    {
+        cancel(task);
+        task.period = 0;
+        insert(task, delay);
+    }
+
+    /**
+     * Schedule periodic task. Task is cancelled first if already scheduled.
+     * 
+     * @param task The task reference.
+     * @param delay The delay in tick before first run.
+     * @param period The period in tick between each run.
+     */
+    public void repeat(Task task, int delay, int period)
+    {
+        cancel(task);
+        task.period = Math.max(1, period);
+        insert(task, delay);
+    }
+
+    /**
+     * Schedule periodic task, first run on the least loaded tick of its period. Task is cancelled first if already
+     * scheduled.
+     * 
+     * @param task The task reference.
+     * @param period The period in tick between each run.
+     */
+    public void repeat(Task task, int period)
+    {
+        final int max = Math.min(Math.max(1, period), WHEEL_SIZE);
+        int delay = max;
+        int load = sizes[(current + max) & WHEEL_MASK];
+        for (int i = 1; i < max && load > 0; i++)
+        {
+            final int size = sizes[(current + i) & WHEEL_MASK];
+            if (size < load)
+            {
+                load = size;
+                delay = i;
+            }
+        }
+        repeat(task, delay, period);
+    }
+
+    /**
+     * Cancel task, including from its own action for a periodic task.
+     * 
+     * @param task The task reference.
+     */
+    public void cancel(Task task)
+    {
+        if (task.bucket != NONE)
+        {
+            unlink(task);
+        }
+        task.period = 0;
+    }
+
+    /**
+     * Insert task in bucket.
+     * 
+     * @param task The task reference.
+     * @param delay The delay in tick.
+     */
+    private void insert(Task task, int delay)
+    {
+        final int ticks = Math.max(1, delay);
+        final int index = (current + ticks) & WHEEL_MASK;
+
+        task.bucket = index;
+        task.rounds = (ticks - 1) / WHEEL_SIZE;
+        task.previous = null;
+        task.next = buckets[index];
+        if (task.next != null)
+        {
+            task.next.previous = task;
+        }
+        buckets[index] = task;
+        sizes[index]++;
+    }
+
+    /**
+     * Remove task from its bucket.
+     * 
+     * @param task The task reference.
+     */
+    private void unlink(Task task)
+    {
+        if (task == cursor)
+        {
+            cursor = task.next;
+        }
+        if (task.previous != null)
+        {
+            task.previous.next = task.next;
+        }
+        else
+        {
+            buckets[task.bucket] = task.next;
+        }
+        if (task.next != null)
+        {
+            task.next.previous = task.previous;
+        }
+        sizes[task.bucket]--;
+        task.bucket = NONE;
+        task.previous = null;
+        task.next = null;
+    }
+
+    /**
+     * Advance wheel by one tick and run due tasks.
+     */
+    private void advance()
+    {
+        current = (current + 1) & WHEEL_MASK;
+
+        Task task = buckets[current];
+        while (task != null)
+        {
+            cursor = task.next;
+            if (task.rounds > 0)
+            {
+                task.rounds--;
+            }
+            else
+            {
+                unlink(task);
+                task.action.run();
+                if (task.period > 0 && task.bucket == NONE)
+                {
+                    insert(task, task.period);
+                }
+            }
+            task = cursor;
+        }
+        cursor = null;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        elapsed += extrp;
+        while (elapsed >= 1.0)
+        {
+            elapsed -= 1.0;
+            advance();
+        }
+    }
+
+    /**
+     * Scheduled task, created by {@link Scheduler#create(Runnable)} and kept by its owner.
+     */
+    public static final class Task
+    {
+        private final Runnable action;
+        private Task previous;
+        private Task next;
+        private int bucket = NONE;
+        private int rounds;
+        private int period;
+
+        /**
+         * Create task.
+         * 
+         * @param action The task action.
+         */
+        Task(Runnable action)
+        {
+            super();
+
+            this.action = action;
+        }
+
+        /**
+         * Check if scheduled.
+         * 
+         * @return <code>true</code> if scheduled, <code>false</code> else.
+         */
+        public boolean isScheduled()
+        {
+            return bucket != NONE;
+        }
+    }
+}
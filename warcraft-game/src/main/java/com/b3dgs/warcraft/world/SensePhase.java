@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Services;
+
+/**
+ * Sense phase, run before handler update.
+ * <p>
+ * All {@link Sensor} features of registered types found in handler are sensed, in parallel on a fork join pool when
+ * they are numerous enough. Sensed results are committed by each sensor during the following single threaded handler
+ * update, which keeps all mutations (damages, tiles, spawns) on the update thread.
+ * </p>
+ */
+public class SensePhase implements Updatable
+{
+    /** Minimum sensors per parallel task. */
+    private static final int THRESHOLD = 64;
+
+    private final List<Class<? extends Sensor>> types = new ArrayList<>();
+    private final List<Sensor> sensors = new ArrayList<>();
+    private final Handler handler;
+    private final ForkJoinPool pool;
+    private boolean parallel = true;
+
+    /**
+     * Create phase.
+     * 
+     * @param services The services reference.
+     */
+    public SensePhase(Services services)
+    {
+        super();
+
+        handler = services.get(Handler.class);
+        pool = ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Add a sensor type to sense.
+     * 
+     * @param type The sensor type.
+     */
+    public void addType(Class<? extends Sensor> type)
+    {
+        types.add(type);
+    }
+
+    /**
+     * Enable or disable parallel sensing.
+     * 
+     * @param parallel <code>true</code> to sense in parallel when possible, <code>false</code> to always sense on
+     *            caller thread.
+     */
+    public void setParallel(boolean parallel)
+    {
+        this.parallel = parallel;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        sensors.clear();
+        final int n = types.size();
+        for (int i = 0; i < n; i++)
+        {
+            for (final Sensor sensor : handler.get(types.get(i)))
+            {
+                sensors.add(sensor);
+            }
+        }
+
+        final int count = sensors.size();
+        if (parallel && count > THRESHOLD && pool.getParallelism() > 1)
+        {
+            pool.invoke(new SenseTask(sensors, 0, count));
+        }
+        else
+        {
+            for (int i = 0; i < count; i++)
+            {
+                sensors.get(i).sense();
+            }
+        }
+    }
+
+    /**
+     * Sense a range of sensors, splitting it while large enough.
+     */
+    private static final class SenseTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        /** Sensors reference. */
+        private final transient List<Sensor> sensors;
+        /** First index (included). */
+        private final int start;
+        /** Last index (excluded). */
+        private final int end;
+
+        /**
+         * Create task.
+         * 
+         * @param sensors The sensors reference.
+         * @param start The first index (included).
+         * @param end The last index (excluded).
+         */
+        SenseTask(List<Sensor> sensors, int start, int end)
+        {
+            super();
+
+            this.sensors = sensors;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (end - start <= THRESHOLD)
+            {
+                for (int i = start; i < end; i++)
+                {
+                    sensors.get(i).sense();
+                }
+            }
+            else
+            {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new SenseTask(sensors, start, middle), new SenseTask(sensors, middle, end));
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.warcraft.Race;
+
+/**
+ * Spatial index of living entities, bucketed by race in a grid of cells.
+ * <p>
+ * Entities are referenced by their {@link EntityStore} slot, race, location, size and health being read from the
+ * store. Only the cell of each slot and the cells content are kept here, in primitive arrays, so queries do not
+ * allocate. Slot is removed from index when released by the store.
+ * </p>
+ * <p>
+ * An entity is referenced by the cell of its bottom left tile. Queries are extended by the largest known entity size so
+ * multi tiles entities are found from any of their tiles.
+ * </p>
+ */
+public class SpatialIndex implements EntityStoreListener
+{
+    /** Cell size in tile. */
+    private static final int CELL_SIZE = 4;
+    /** Initial cell capacity. */
+    private static final int INITIAL_CELL = 4;
+    /** Indexed races. */
+    private static final int RACES = Race.values().length;
+
+    private final MapTile map;
+    private final EntityStore store;
+
+    private int cellsWidth;
+    private int cellsHeight;
+    private int maxSize = 1;
+
+    /** Slots of each cell, per race. */
+    private int[][][] cells;
+    /** Slots count of each cell, per race. */
+    private int[][] counts;
+    /** Cell of each slot, {@link EntityStore#NONE} if not indexed. */
+    private int[] cellIds = new int[0];
+
+    /**
+     * Create index.
+     * 
+     * @param services The services reference.
+     */
+    public SpatialIndex(Services services)
+    {
+        super();
+
+        map = services.get(MapTile.class);
+        store = services.get(EntityStore.class);
+        store.addListener(this);
+    }
+
+    /**
+     * Update entity cell from its store location, registering it if needed. Neutral entities are not indexed.
+     * 
+     * @param slot The entity slot ({@link EntityStore#NONE} is ignored).
+     */
+    public void update(int slot)
+    {
+        if (slot == EntityStore.NONE)
+        {
+            return;
+        }
+        if (cells == null)
+        {
+            createCells();
+        }
+        if (slot >= cellIds.length)
+        {
+            grow();
+        }
+
+        final int race = store.getRace(slot);
+        final int cell = getCell(store.getInTileX(slot), store.getInTileY(slot));
+        if (cellIds[slot] == EntityStore.NONE)
+        {
+            if (race != Race.NEUTRAL.ordinal())
+            {
+                maxSize = Math.max(maxSize, Math.max(store.getInTileWidth(slot), store.getInTileHeight(slot)));
+                addToCell(race, cell, slot);
+                cellIds[slot] = cell;
+            }
+        }
+        else if (cell != cellIds[slot])
+        {
+            removeFromCell(race, cellIds[slot], slot);
+            addToCell(race, cell, slot);
+            cellIds[slot] = cell;
+        }
+    }
+
+    /**
+     * Remove entity from index.
+     * 
+     * @param slot The entity slot ({@link EntityStore#NONE} or not indexed are ignored).
+     */
+    public void remove(int slot)
+    {
+        if (slot != EntityStore.NONE && slot < cellIds.length && cellIds[slot] != EntityStore.NONE)
+        {
+            removeFromCell(store.getRace(slot), cellIds[slot], slot);
+            cellIds[slot] = EntityStore.NONE;
+        }
+    }
+
+    /**
+     * Find the closest living hostile entity around location. Distance is computed in tile to the entity area, on the
+     * largest axis.
+     * 
+     * @param race The searching race.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @param radius The search radius in tile.
+     * @return The closest hostile found, <code>null</code> if none.
+     */
+    public Transformable findHostile(Race race, int tx, int ty, int radius)
+    {
+        if (cells == null || radius < 0)
+        {
+            return null;
+        }
+        final int minCx = Math.max(0, (tx - radius - maxSize + 1) / CELL_SIZE);
+        final int minCy = Math.max(0, (ty - radius - maxSize + 1) / CELL_SIZE);
+        final int maxCx = Math.min(cellsWidth - 1, Math.max(0, tx + radius) / CELL_SIZE);
+        final int maxCy = Math.min(cellsHeight - 1, Math.max(0, ty + radius) / CELL_SIZE);
+
+        Transformable closest = null;
+        int best = radius + 1;
+        for (int r = 0; r < RACES; r++)
+        {
+            if (r == race.ordinal() || r == Race.NEUTRAL.ordinal())
+            {
+                continue;
+            }
+            for (int cy = minCy; cy <= maxCy; cy++)
+            {
+                for (int cx = minCx; cx <= maxCx; cx++)
+                {
+                    final int cell = cx + cy * cellsWidth;
+                    final int[] content = cells[r][cell];
+                    final int count = counts[r][cell];
+                    for (int i = 0; i < count; i++)
+                    {
+                        final int slot = content[i];
+                        final int distance = getDistance(slot, tx, ty);
+                        if (distance < best && store.getHealthPercent(slot) > 0)
+                        {
+                            best = distance;
+                            closest = store.getTransformable(slot);
+                        }
+                    }
+                }
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Create cells from map size.
+     */
+    private void createCells()
+    {
+        cellsWidth = Math.max(1, (map.getInTileWidth() + CELL_SIZE - 1) / CELL_SIZE);
+        cellsHeight = Math.max(1, (map.getInTileHeight() + CELL_SIZE - 1) / CELL_SIZE);
+
+        final int total = cellsWidth * cellsHeight;
+        cells = new int[RACES][total][];
+        counts = new int[RACES][total];
+        for (int r = 0; r < RACES; r++)
+        {
+            for (int c = 0; c < total; c++)
+            {
+                cells[r][c] = new int[INITIAL_CELL];
+            }
+        }
+    }
+
+    /**
+     * Grow slot cells to store capacity.
+     */
+    private void grow()
+    {
+        final int old = cellIds.length;
+        cellIds = Arrays.copyOf(cellIds, store.getCapacity());
+        Arrays.fill(cellIds, old, cellIds.length, EntityStore.NONE);
+    }
+
+    /**
+     * Get cell index of tile, clamped to map.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The cell index.
+     */
+    private int getCell(int tx, int ty)
+    {
+        final int cx = Math.min(cellsWidth - 1, Math.max(0, tx / CELL_SIZE));
+        final int cy = Math.min(cellsHeight - 1, Math.max(0, ty / CELL_SIZE));
+        return cx + cy * cellsWidth;
+    }
+
+    /**
+     * Add slot to cell.
+     * 
+     * @param race The race index.
+     * @param cell The cell index.
+     * @param slot The slot to add.
+     */
+    private void addToCell(int race, int cell, int slot)
+    {
+        final int count = counts[race][cell];
+        if (count == cells[race][cell].length)
+        {
+            cells[race][cell] = Arrays.copyOf(cells[race][cell], count * 2);
+        }
+        cells[race][cell][count] = slot;
+        counts[race][cell] = count + 1;
+    }
+
+    /**
+     * Remove slot from cell.
+     * 
+     * @param race The race index.
+     * @param cell The cell index.
+     * @param slot The slot to remove.
+     */
+    private void removeFromCell(int race, int cell, int slot)
+    {
+        final int[] content = cells[race][cell];
+        final int last = counts[race][cell] - 1;
+        for (int i = 0; i <= last; i++)
+        {
+            if (content[i] == slot)
+            {
+                content[i] = content[last];
+                counts[race][cell] = last;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Get distance in tile between location and entity area, on the largest axis.
+     * 
+     * @param slot The entity slot.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The distance in tile.
+     */
+    private int getDistance(int slot, int tx, int ty)
+    {
+        final int x = store.getInTileX(slot);
+        final int y = store.getInTileY(slot);
+        final int dx = Math.max(0, Math.max(x - tx, tx - (x + store.getInTileWidth(slot) - 1)));
+        final int dy = Math.max(0, Math.max(y - ty, ty - (y + store.getInTileHeight(slot) - 1)));
+        return Math.max(dx, dy);
+    }
+
+    @Override
+    public void notifySlotReleased(int slot)
+    {
+        remove(slot);
+    }
+}
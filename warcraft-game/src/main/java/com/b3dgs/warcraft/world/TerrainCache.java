@@ -0,0 +1,479 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.viewer.MapTileViewer;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Renderable;
+import com.b3dgs.warcraft.Player;
+import com.b3dgs.warcraft.constant.Gfx;
+
+/**
+ * Terrain rendered by chunks of tiles, drawn once in an image and only redrawn when one of their tiles changed.
+ * <p>
+ * Once loaded, map tiles are no more rendered by the map viewer. Tile edits must be notified with
+ * {@link #invalidate(int, int)}. Chunks are clipped to the camera area when drawn.
+ * </p>
+ * <p>
+ * Fog of war is blended in chunks from player {@link Visibility}: hidden layer over tiles never visited, fog layer over
+ * tiles not currently visible. Transition of each tile is given by its covered corners, a corner being covered when
+ * its four tiles are. Chunks of tiles changed by visibility are invalidated on update.
+ * </p>
+ */
+public class TerrainCache implements Updatable, Renderable
+{
+    /** Chunk size in tile. */
+    private static final int CHUNK_SIZE = 16;
+    /** Empty tile pixel. */
+    private static final int NONE = 0xFF000000;
+    /** No fog tile. */
+    private static final int CLEAR = -1;
+    /** Up left corner covered. */
+    private static final int UP_LEFT = 1;
+    /** Up right corner covered. */
+    private static final int UP_RIGHT = 1 << 1;
+    /** Down left corner covered. */
+    private static final int DOWN_LEFT = 1 << 2;
+    /** Down right corner covered. */
+    private static final int DOWN_RIGHT = 1 << 3;
+    /** Fog tile number by covered corners. */
+    private static final int[] FOG_TILES =
+    {
+        CLEAR, 4, 5, 0, 6, 2, 15, 8, 7, 14, 3, 9, 1, 10, 11, 16
+    };
+    /** Opaque alpha. */
+    private static final int OPAQUE = 0xFF;
+
+    /**
+     * Read image pixels.
+     * 
+     * @param image The image to read.
+     * @return The image pixels, line by line.
+     */
+    private static int[] getPixels(ImageBuffer image)
+    {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] rgb = new int[width * height];
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                rgb[y * width + x] = image.getRgb(x, y);
+            }
+        }
+        return rgb;
+    }
+
+    /**
+     * Blend color over opaque color.
+     * 
+     * @param under The opaque color.
+     * @param over The color to blend over.
+     * @param alpha The over color alpha.
+     * @return The opaque blended color.
+     */
+    private static int blend(int under, int over, int alpha)
+    {
+        final int inverse = OPAQUE - alpha;
+        final int r = ((over >> 16 & OPAQUE) * alpha + (under >> 16 & OPAQUE) * inverse) / OPAQUE;
+        final int g = ((over >> 8 & OPAQUE) * alpha + (under >> 8 & OPAQUE) * inverse) / OPAQUE;
+        final int b = ((over & OPAQUE) * alpha + (under & OPAQUE) * inverse) / OPAQUE;
+        return OPAQUE << 24 | r << 16 | g << 8 | b;
+    }
+
+    private final MapTile map;
+    private final Camera camera;
+    private final Visibility visibility;
+    private final Player player;
+
+    private final List<Sheet> sheets = new ArrayList<>();
+    private Sheet hidden;
+    private Sheet fogged;
+
+    private int chunksWidth;
+    private int chunksHeight;
+    private ImageBuffer[] chunks = new ImageBuffer[0];
+    private boolean[] dirty = new boolean[0];
+    private int[] pixels = new int[0];
+
+    /**
+     * Create terrain cache.
+     * 
+     * @param services The services reference.
+     */
+    public TerrainCache(Services services)
+    {
+        super();
+
+        map = services.get(MapTile.class);
+        camera = services.get(Camera.class);
+        visibility = services.get(Visibility.class);
+        player = services.get(Player.class);
+    }
+
+    /**
+     * Load tile pixels from the sheets loaded by map, fog sheets and prepare chunks. Must be called once map is loaded.
+     */
+    public void load()
+    {
+        dispose();
+        sheets.clear();
+        int first = 0;
+        final int n = map.getSheetsNumber();
+        for (int i = 0; i < n; i++)
+        {
+            final ImageBuffer sheet = map.getSheet(i).getSurface();
+            final int width = sheet.getWidth();
+            sheets.add(new Sheet(getPixels(sheet), width, first));
+            first += width / map.getTileWidth() * (sheet.getHeight() / map.getTileHeight());
+        }
+        hidden = new Sheet(getPixels(Gfx.FOG_HIDDEN.getSurface()), Gfx.FOG_HIDDEN.getSurface().getWidth(), 0);
+        fogged = new Sheet(getPixels(Gfx.FOG_FOGGED.getSurface()), Gfx.FOG_FOGGED.getSurface().getWidth(), 0);
+
+        chunksWidth = (map.getInTileWidth() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunksHeight = (map.getInTileHeight() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunks = new ImageBuffer[chunksWidth * chunksHeight];
+        dirty = new boolean[chunks.length];
+        Arrays.fill(dirty, true);
+        pixels = new int[CHUNK_SIZE * map.getTileWidth() * CHUNK_SIZE * map.getTileHeight()];
+
+        map.getFeature(MapTileViewer.class).clear();
+    }
+
+    /**
+     * Dispose chunks images.
+     */
+    public void dispose()
+    {
+        for (final ImageBuffer chunk : chunks)
+        {
+            if (chunk != null)
+            {
+                chunk.dispose();
+            }
+        }
+        chunks = new ImageBuffer[0];
+        dirty = new boolean[0];
+    }
+
+    /**
+     * Invalidate chunks around tile, so they are redrawn on next render. Neighbors are included as transitions may
+     * have changed them.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     */
+    public void invalidate(int tx, int ty)
+    {
+        if (chunks.length == 0)
+        {
+            return;
+        }
+        final int minCx = Math.max(0, (tx - 1) / CHUNK_SIZE);
+        final int minCy = Math.max(0, (ty - 1) / CHUNK_SIZE);
+        final int maxCx = Math.min(chunksWidth - 1, (tx + 1) / CHUNK_SIZE);
+        final int maxCy = Math.min(chunksHeight - 1, (ty + 1) / CHUNK_SIZE);
+        for (int cy = minCy; cy <= maxCy; cy++)
+        {
+            for (int cx = minCx; cx <= maxCx; cx++)
+            {
+                dirty[cx + cy * chunksWidth] = true;
+            }
+        }
+    }
+
+    /**
+     * Get the sheet containing tile number.
+     * 
+     * @param number The tile number.
+     * @return The tile sheet.
+     */
+    private Sheet getSheet(int number)
+    {
+        final int n = sheets.size();
+        for (int i = n - 1; i > 0; i--)
+        {
+            final Sheet sheet = sheets.get(i);
+            if (number >= sheet.first)
+            {
+                return sheet;
+            }
+        }
+        return sheets.get(0);
+    }
+
+    /**
+     * Check if tile is covered by fog layer.
+     * 
+     * @param hide <code>true</code> for hidden layer (not visited), <code>false</code> for fog layer (not visible).
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if covered (always covered outside map), <code>false</code> else.
+     */
+    private boolean isCovered(boolean hide, int tx, int ty)
+    {
+        if (hide)
+        {
+            return !visibility.isVisited(player.getRace(), tx, ty);
+        }
+        return !visibility.isVisible(player.getRace(), tx, ty);
+    }
+
+    /**
+     * Get the fog tile number of tile, from its covered corners.
+     * 
+     * @param hide <code>true</code> for hidden layer (not visited), <code>false</code> for fog layer (not visible).
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The fog tile number, {@link #CLEAR} if none.
+     */
+    private int getFogTile(boolean hide, int tx, int ty)
+    {
+        if (!isCovered(hide, tx, ty))
+        {
+            return CLEAR;
+        }
+        final boolean left = isCovered(hide, tx - 1, ty);
+        final boolean right = isCovered(hide, tx + 1, ty);
+        final boolean up = isCovered(hide, tx, ty + 1);
+        final boolean down = isCovered(hide, tx, ty - 1);
+
+        int corners = 0;
+        if (up && left && isCovered(hide, tx - 1, ty + 1))
+        {
+            corners |= UP_LEFT;
+        }
+        if (up && right && isCovered(hide, tx + 1, ty + 1))
+        {
+            corners |= UP_RIGHT;
+        }
+        if (down && left && isCovered(hide, tx - 1, ty - 1))
+        {
+            corners |= DOWN_LEFT;
+        }
+        if (down && right && isCovered(hide, tx + 1, ty - 1))
+        {
+            corners |= DOWN_RIGHT;
+        }
+        return FOG_TILES[corners];
+    }
+
+    /**
+     * Blend fog tile over chunk pixels.
+     * 
+     * @param sheet The fog sheet.
+     * @param number The fog tile number ({@link #CLEAR} is ignored).
+     * @param dst The first chunk pixel of tile.
+     * @param width The chunk width.
+     */
+    private void blendFog(Sheet sheet, int number, int dst, int width)
+    {
+        if (number == CLEAR)
+        {
+            return;
+        }
+        final int tw = map.getTileWidth();
+        final int th = map.getTileHeight();
+        final int tilesPerLine = sheet.width / tw;
+        final int src = number / tilesPerLine * th * sheet.width + number % tilesPerLine * tw;
+        for (int py = 0; py < th; py++)
+        {
+            for (int px = 0; px < tw; px++)
+            {
+                final int color = sheet.rgb[src + py * sheet.width + px];
+                final int alpha = color >>> 24;
+                final int index = dst + py * width + px;
+                if (alpha == OPAQUE)
+                {
+                    pixels[index] = color;
+                }
+                else if (alpha > 0)
+                {
+                    pixels[index] = blend(pixels[index], color, alpha);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw chunk tiles in its image.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     */
+    private void redraw(int cx, int cy)
+    {
+        final int tw = map.getTileWidth();
+        final int th = map.getTileHeight();
+        final int width = CHUNK_SIZE * tw;
+        final int height = CHUNK_SIZE * th;
+        final int index = cx + cy * chunksWidth;
+        if (chunks[index] == null)
+        {
+            chunks[index] = Graphics.createImageBuffer(width, height, ColorRgba.BLACK);
+        }
+
+        for (int y = 0; y < CHUNK_SIZE; y++)
+        {
+            final int ty = cy * CHUNK_SIZE + y;
+            for (int x = 0; x < CHUNK_SIZE; x++)
+            {
+                final int tx = cx * CHUNK_SIZE + x;
+                final int dst = (CHUNK_SIZE - y - 1) * th * width + x * tw;
+                final Tile tile = getTile(tx, ty);
+                if (tile == null)
+                {
+                    for (int py = 0; py < th; py++)
+                    {
+                        Arrays.fill(pixels, dst + py * width, dst + py * width + tw, NONE);
+                    }
+                }
+                else
+                {
+                    final int number = tile.getNumber();
+                    final Sheet sheet = getSheet(number);
+                    final int local = number - sheet.first;
+                    final int tilesPerLine = sheet.width / tw;
+                    final int src = local / tilesPerLine * th * sheet.width + local % tilesPerLine * tw;
+                    for (int py = 0; py < th; py++)
+                    {
+                        System.arraycopy(sheet.rgb, src + py * sheet.width, pixels, dst + py * width, tw);
+                    }
+                    blendFog(fogged, getFogTile(false, tx, ty), dst, width);
+                    blendFog(hidden, getFogTile(true, tx, ty), dst, width);
+                }
+            }
+        }
+        chunks[index].setRgb(0, 0, width, height, pixels, 0, width);
+        dirty[index] = false;
+    }
+
+    /**
+     * Get tile, <code>null</code> if none or outside map.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The tile, <code>null</code> if none.
+     */
+    private Tile getTile(int tx, int ty)
+    {
+        if (tx >= map.getInTileWidth() || ty >= map.getInTileHeight())
+        {
+            return null;
+        }
+        return map.getTile(tx, ty);
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (chunks.length > 0)
+        {
+            visibility.forEachChanged(player.getRace(), this::invalidate);
+        }
+    }
+
+    @Override
+    public void render(Graphic g)
+    {
+        if (chunks.length == 0)
+        {
+            return;
+        }
+        final int width = CHUNK_SIZE * map.getTileWidth();
+        final int height = CHUNK_SIZE * map.getTileHeight();
+        final int minCx = Math.max(0, (int) Math.floor(camera.getX() / width));
+        final int minCy = Math.max(0, (int) Math.floor(camera.getY() / height));
+        final int maxCx = Math.min(chunksWidth - 1, (int) Math.floor((camera.getX() + camera.getWidth()) / width));
+        final int maxCy = Math.min(chunksHeight - 1, (int) Math.floor((camera.getY() + camera.getHeight()) / height));
+        final int viewLeft = camera.getViewX();
+        final int viewTop = camera.getViewY();
+        final int viewRight = viewLeft + camera.getWidth();
+        final int viewBottom = viewTop + camera.getHeight();
+
+        for (int cy = minCy; cy <= maxCy; cy++)
+        {
+            for (int cx = minCx; cx <= maxCx; cx++)
+            {
+                if (dirty[cx + cy * chunksWidth])
+                {
+                    redraw(cx, cy);
+                }
+                final int x = (int) Math.round(camera.getViewpointX(cx * width));
+                final int y = (int) Math.round(camera.getViewpointY((cy + 1) * height));
+                final int left = Math.max(x, viewLeft);
+                final int top = Math.max(y, viewTop);
+                final int right = Math.min(x + width, viewRight);
+                final int bottom = Math.min(y + height, viewBottom);
+                if (left < right && top < bottom)
+                {
+                    g.drawImage(chunks[cx + cy * chunksWidth],
+                                left,
+                                top,
+                                right,
+                                bottom,
+                                left - x,
+                                top - y,
+                                right - x,
+                                bottom - y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tile sheet pixels.
+     */
+    private static final class Sheet
+    {
+        /** Sheet pixels. */
+        private final int[] rgb;
+        /** Sheet width. */
+        private final int width;
+        /** First tile number. */
+        private final int first;
+
+        /**
+         * Create sheet.
+         * 
+         * @param rgb The sheet pixels.
+         * @param width The sheet width.
+         * @param first The first tile number.
+         */
+        Sheet(int[] rgb, int width, int first)
+        {
+            super();
+
+            this.rgb = rgb;
+            this.width = width;
+            this.first = first;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.Viewer;
+import com.b3dgs.lionengine.game.Tiled;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+
+/**
+ * Area of tiles covered by the view, computed once per update so entities can skip rendering and animation when not
+ * overlapping it.
+ * <p>
+ * Area is extended by a margin, so entities entering the view are already up to date.
+ * </p>
+ */
+public class ViewCulling implements Updatable
+{
+    /** Margin around view in tile. */
+    private static final int MARGIN = 2;
+
+    private final Viewer viewer;
+    private final MapTile map;
+
+    private int minTx;
+    private int minTy;
+    private int maxTx;
+    private int maxTy;
+
+    /**
+     * Create culling.
+     * 
+     * @param viewer The viewer reference.
+     * @param map The map reference.
+     */
+    public ViewCulling(Viewer viewer, MapTile map)
+    {
+        super();
+
+        this.viewer = viewer;
+        this.map = map;
+    }
+
+    /**
+     * Check if tiled area overlaps the view.
+     * 
+     * @param tiled The tiled area.
+     * @return <code>true</code> if on screen, <code>false</code> else.
+     */
+    public boolean isVisible(Tiled tiled)
+    {
+        final int tx = tiled.getInTileX();
+        final int ty = tiled.getInTileY();
+        return tx + tiled.getInTileWidth() > minTx
+               && tx <= maxTx
+               && ty + tiled.getInTileHeight() > minTy
+               && ty <= maxTy;
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        final int tw = map.getTileWidth();
+        final int th = map.getTileHeight();
+
+        minTx = (int) Math.floor(viewer.getX() / tw) - MARGIN;
+        minTy = (int) Math.floor(viewer.getY() / th) - MARGIN;
+        maxTx = (int) Math.floor((viewer.getX() + viewer.getWidth()) / tw) + MARGIN;
+        maxTy = (int) Math.floor((viewer.getY() + viewer.getHeight()) / th) + MARGIN;
+    }
+}
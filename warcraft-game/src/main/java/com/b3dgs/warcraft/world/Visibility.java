@@ -0,0 +1,572 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.Tiled;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.game.feature.tile.map.transition.fog.Fovable;
+import com.b3dgs.warcraft.Race;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+
+/**
+ * Visibility layer, with one bitset per race of tiles currently visible and tiles ever visited.
+ * <p>
+ * Bitsets store one bit per tile, each map line starting on a new word. Visible tiles are stamped once per update from
+ * field of view of each entity, so queries are single bit or word masks tests instead of fog of war lookups.
+ * </p>
+ * <p>
+ * Stamps are collected as sorted keys (race, field of view, size and location), so entities sharing a tile and a field
+ * of view are stamped once, and stamping is skipped when no key changed. Each field of view is stamped from its
+ * precomputed line spans, and races are stamped in parallel on a fork join pool when stamps are numerous enough.
+ * </p>
+ * <p>
+ * Tiles which changed during last update are also stored, so consumers only touch what changed. They must be read
+ * after update, as they are cleared at the start of next update, rendered or not.
+ * </p>
+ */
+public class Visibility implements Updatable, HandlerListener
+{
+    /** Races count. */
+    private static final int RACES = Race.values().length;
+    /** Bit index shift to word index. */
+    private static final int WORD_SHIFT = 6;
+    /** Bit index mask in word. */
+    private static final int WORD_MASK = 63;
+    /** Stamp key location mask. */
+    private static final long KEY_LOCATION = 0xFFFFL;
+    /** Stamp key size and field of view mask. */
+    private static final long KEY_SIZE = 0xFFL;
+    /** Stamp key horizontal location shift. */
+    private static final int SHIFT_X = 16;
+    /** Stamp key height shift. */
+    private static final int SHIFT_HEIGHT = 32;
+    /** Stamp key width shift. */
+    private static final int SHIFT_WIDTH = 40;
+    /** Stamp key field of view shift. */
+    private static final int SHIFT_FOV = 48;
+    /** Stamp key race shift. */
+    private static final int SHIFT_RACE = 56;
+    /** Minimum stamps to stamp races in parallel. */
+    private static final int THRESHOLD = 64;
+
+    /**
+     * Set bits of line range.
+     * 
+     * @param bits The bitset.
+     * @param base The line first word.
+     * @param start The first bit (included).
+     * @param end The last bit (included).
+     */
+    private static void set(long[] bits, int base, int start, int end)
+    {
+        final int first = base + (start >>> WORD_SHIFT);
+        final int last = base + (end >>> WORD_SHIFT);
+        final long firstMask = -1L << (start & WORD_MASK);
+        final long lastMask = -1L >>> (WORD_MASK - (end & WORD_MASK));
+        if (first == last)
+        {
+            bits[first] |= firstMask & lastMask;
+        }
+        else
+        {
+            bits[first] |= firstMask;
+            for (int i = first + 1; i < last; i++)
+            {
+                bits[i] = -1L;
+            }
+            bits[last] |= lastMask;
+        }
+    }
+
+    /**
+     * Check if at least one bit of line range is set.
+     * 
+     * @param bits The bitset.
+     * @param base The line first word.
+     * @param start The first bit (included).
+     * @param end The last bit (included).
+     * @return <code>true</code> if one bit set, <code>false</code> else.
+     */
+    private static boolean any(long[] bits, int base, int start, int end)
+    {
+        final int first = base + (start >>> WORD_SHIFT);
+        final int last = base + (end >>> WORD_SHIFT);
+        final long firstMask = -1L << (start & WORD_MASK);
+        final long lastMask = -1L >>> (WORD_MASK - (end & WORD_MASK));
+        if (first == last)
+        {
+            return (bits[first] & firstMask & lastMask) != 0L;
+        }
+        if ((bits[first] & firstMask) != 0L || (bits[last] & lastMask) != 0L)
+        {
+            return true;
+        }
+        for (int i = first + 1; i < last; i++)
+        {
+            if (bits[i] != 0L)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final List<Pathfindable> pathfindables = new ArrayList<>();
+    private final List<Fovable> fovables = new ArrayList<>();
+    private final List<EntityStats> stats = new ArrayList<>();
+    private final int[] bounds = new int[RACES + 1];
+    private final MapTile map;
+    private final ForkJoinPool pool;
+
+    /** Line half spans per field of view, indexed by distance outside area. */
+    private int[][] spans = new int[0][];
+    private long[] keys = new long[0];
+    private long[] keysPrevious = new long[0];
+    private int keysCount;
+    private int keysPreviousCount = -1;
+    private int width;
+    private int height;
+    private int stride;
+    private boolean changes;
+    private long[][] visible = new long[RACES][0];
+    private long[][] previous = new long[RACES][0];
+    private long[][] visited = new long[RACES][0];
+    private long[][] changed = new long[RACES][0];
+
+    /**
+     * Create visibility.
+     * 
+     * @param services The services reference.
+     */
+    public Visibility(Services services)
+    {
+        super();
+
+        map = services.get(MapTile.class);
+        pool = ForkJoinPool.commonPool();
+        services.get(Handler.class).addListener(this);
+    }
+
+    /**
+     * Prepare bitsets from map size, all tiles hidden. Must be called once map is loaded.
+     */
+    public void load()
+    {
+        width = map.getInTileWidth();
+        height = map.getInTileHeight();
+        stride = (width + WORD_MASK) >>> WORD_SHIFT;
+
+        final int words = stride * height;
+        visible = new long[RACES][words];
+        previous = new long[RACES][words];
+        visited = new long[RACES][words];
+        changed = new long[RACES][words];
+        keysPreviousCount = -1;
+    }
+
+    /**
+     * Check if at least one tile of area is currently visible by race.
+     * 
+     * @param race The race reference.
+     * @param tiled The tiled area.
+     * @return <code>true</code> if visible, <code>false</code> else.
+     */
+    public boolean isVisible(Race race, Tiled tiled)
+    {
+        final int start = Math.max(0, tiled.getInTileX());
+        final int end = Math.min(width - 1, tiled.getInTileX() + tiled.getInTileWidth() - 1);
+        final int minY = Math.max(0, tiled.getInTileY());
+        final int maxY = Math.min(height - 1, tiled.getInTileY() + tiled.getInTileHeight() - 1);
+        if (start > end)
+        {
+            return false;
+        }
+        final long[] bits = visible[race.ordinal()];
+        for (int ty = minY; ty <= maxY; ty++)
+        {
+            if (any(bits, ty * stride, start, end))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if tile is currently visible by race.
+     * 
+     * @param race The race reference.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if visible, <code>false</code> else.
+     */
+    public boolean isVisible(Race race, int tx, int ty)
+    {
+        return get(visible[race.ordinal()], tx, ty);
+    }
+
+    /**
+     * Check if tile has been visited by race.
+     * 
+     * @param race The race reference.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if visited, <code>false</code> else.
+     */
+    public boolean isVisited(Race race, int tx, int ty)
+    {
+        return get(visited[race.ordinal()], tx, ty);
+    }
+
+    /**
+     * Check if all tiles of area have been visited by race.
+     * 
+     * @param race The race reference.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @param tw The width in tile.
+     * @param th The height in tile.
+     * @return <code>true</code> if all visited, <code>false</code> else or if partly outside map.
+     */
+    public boolean isVisited(Race race, int tx, int ty, int tw, int th)
+    {
+        final long[] bits = visited[race.ordinal()];
+        for (int y = ty; y < ty + th; y++)
+        {
+            for (int x = tx; x < tx + tw; x++)
+            {
+                if (!get(bits, x, y))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Notify each tile of race which changed visible or visited state during last update.
+     * 
+     * @param race The race reference.
+     * @param listener The listener reference.
+     */
+    public void forEachChanged(Race race, ChangeListener listener)
+    {
+        final long[] bits = changed[race.ordinal()];
+        for (int i = 0; i < bits.length; i++)
+        {
+            long word = bits[i];
+            while (word != 0L)
+            {
+                final int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                listener.notifyChanged((i % stride << WORD_SHIFT) + bit, i / stride);
+            }
+        }
+    }
+
+    /**
+     * Clear changed tiles of all races, if any.
+     */
+    private void clearChanged()
+    {
+        if (changes)
+        {
+            for (int race = 0; race < RACES; race++)
+            {
+                Arrays.fill(changed[race], 0L);
+            }
+            changes = false;
+        }
+    }
+
+    /**
+     * Get tile bit.
+     * 
+     * @param bits The bitset.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if set, <code>false</code> else or outside map.
+     */
+    private boolean get(long[] bits, int tx, int ty)
+    {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height)
+        {
+            return false;
+        }
+        return (bits[ty * stride + (tx >>> WORD_SHIFT)] & 1L << (tx & WORD_MASK)) != 0L;
+    }
+
+    /**
+     * Compute line half spans of field of view if not already done.
+     * 
+     * @param fov The field of view in tile.
+     */
+    private void prepareSpans(int fov)
+    {
+        if (fov >= spans.length)
+        {
+            spans = Arrays.copyOf(spans, fov + 1);
+        }
+        if (spans[fov] == null)
+        {
+            final int[] halves = new int[fov + 1];
+            for (int outside = 0; outside <= fov; outside++)
+            {
+                halves[outside] = (int) Math.sqrt(fov * fov - outside * outside);
+            }
+            spans[fov] = halves;
+        }
+    }
+
+    /**
+     * Collect sorted and unique stamp keys of all entities, with bounds of each race.
+     */
+    private void collect()
+    {
+        final int n = fovables.size();
+        if (keys.length < n)
+        {
+            keys = new long[n * 2];
+        }
+        for (int i = 0; i < n; i++)
+        {
+            final Pathfindable pathfindable = pathfindables.get(i);
+            final int fov = (int) Math.min(KEY_SIZE, Math.max(0, fovables.get(i).getInTileFov()));
+            prepareSpans(fov);
+
+            keys[i] = (long) stats.get(i).getRace().ordinal() << SHIFT_RACE
+                      | (long) fov << SHIFT_FOV
+                      | (pathfindable.getInTileWidth() & KEY_SIZE) << SHIFT_WIDTH
+                      | (pathfindable.getInTileHeight() & KEY_SIZE) << SHIFT_HEIGHT
+                      | (pathfindable.getInTileX() & KEY_LOCATION) << SHIFT_X
+                      | pathfindable.getInTileY() & KEY_LOCATION;
+        }
+        Arrays.sort(keys, 0, n);
+
+        keysCount = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (keysCount == 0 || keys[i] != keys[keysCount - 1])
+            {
+                keys[keysCount++] = keys[i];
+            }
+        }
+
+        int index = 0;
+        for (int race = 0; race < RACES; race++)
+        {
+            bounds[race] = index;
+            while (index < keysCount && keys[index] >>> SHIFT_RACE == race)
+            {
+                index++;
+            }
+        }
+        bounds[RACES] = keysCount;
+    }
+
+    /**
+     * Stamp visible tiles of race from its keys, and update its visited and changed tiles.
+     * 
+     * @param race The race index.
+     */
+    private void stamp(int race)
+    {
+        final long[] now = previous[race];
+        final long[] old = visible[race];
+        previous[race] = old;
+        visible[race] = now;
+
+        Arrays.fill(now, 0L);
+        for (int i = bounds[race]; i < bounds[race + 1]; i++)
+        {
+            stamp(now, keys[i]);
+        }
+
+        final long[] seen = visited[race];
+        final long[] diff = changed[race];
+        for (int i = 0; i < now.length; i++)
+        {
+            final long visit = seen[i] | now[i];
+            diff[i] |= now[i] ^ old[i] | visit ^ seen[i];
+            seen[i] = visit;
+        }
+    }
+
+    /**
+     * Stamp field of view around area, as a circle extended by area size.
+     * 
+     * @param bits The bitset.
+     * @param key The stamp key.
+     */
+    private void stamp(long[] bits, long key)
+    {
+        final int ty = (int) (key & KEY_LOCATION);
+        final int tx = (int) (key >>> SHIFT_X & KEY_LOCATION);
+        final int th = (int) (key >>> SHIFT_HEIGHT & KEY_SIZE);
+        final int tw = (int) (key >>> SHIFT_WIDTH & KEY_SIZE);
+        final int fov = (int) (key >>> SHIFT_FOV & KEY_SIZE);
+        final int[] halves = spans[fov];
+
+        final int minY = Math.max(0, ty - fov);
+        final int maxY = Math.min(height - 1, ty + th - 1 + fov);
+        for (int y = minY; y <= maxY; y++)
+        {
+            final int half = halves[Math.max(0, Math.max(ty - y, y - ty - th + 1))];
+            final int start = Math.max(0, tx - half);
+            final int end = Math.min(width - 1, tx + tw - 1 + half);
+            if (start <= end)
+            {
+                set(bits, y * stride, start, end);
+            }
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        if (stride == 0)
+        {
+            return;
+        }
+        clearChanged();
+        collect();
+        if (keysCount == keysPreviousCount && Arrays.equals(keys, 0, keysCount, keysPrevious, 0, keysCount))
+        {
+            return;
+        }
+
+        if (keysCount > THRESHOLD && pool.getParallelism() > 1)
+        {
+            pool.invoke(new StampTask(0, RACES));
+        }
+        else
+        {
+            for (int race = 0; race < RACES; race++)
+            {
+                stamp(race);
+            }
+        }
+
+        changes = true;
+
+        final long[] swap = keysPrevious;
+        keysPrevious = keys;
+        keys = swap;
+        keysPreviousCount = keysCount;
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(Fovable.class)
+            && featurable.hasFeature(Pathfindable.class)
+            && featurable.hasFeature(EntityStats.class))
+        {
+            pathfindables.add(featurable.getFeature(Pathfindable.class));
+            fovables.add(featurable.getFeature(Fovable.class));
+            stats.add(featurable.getFeature(EntityStats.class));
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        if (featurable.hasFeature(Fovable.class))
+        {
+            final int index = fovables.indexOf(featurable.getFeature(Fovable.class));
+            if (index > -1)
+            {
+                final int last = fovables.size() - 1;
+                pathfindables.set(index, pathfindables.get(last));
+                fovables.set(index, fovables.get(last));
+                stats.set(index, stats.get(last));
+                pathfindables.remove(last);
+                fovables.remove(last);
+                stats.remove(last);
+            }
+        }
+    }
+
+    /**
+     * Stamp a range of races, splitting it while more than one race.
+     */
+    private final class StampTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        /** First race index (included). */
+        private final int start;
+        /** Last race index (excluded). */
+        private final int end;
+
+        /**
+         * Create task.
+         * 
+         * @param start The first race index (included).
+         * @param end The last race index (excluded).
+         */
+        StampTask(int start, int end)
+        {
+            super();
+
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (end - start <= 1)
+            {
+                stamp(start);
+            }
+            else
+            {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new StampTask(start, middle), new StampTask(middle, end));
+            }
+        }
+    }
+
+    /**
+     * Notified on tile visibility change.
+     */
+    @FunctionalInterface
+    public interface ChangeListener
+    {
+        /**
+         * Notify tile changed.
+         * 
+         * @param tx The horizontal tile location.
+         * @param ty The vertical tile location.
+         */
+        void notifyChanged(int tx, int ty);
+    }
+}
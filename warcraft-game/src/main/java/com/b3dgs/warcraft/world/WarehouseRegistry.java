@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.b3dgs.lionengine.game.Tiled;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.HandlerListener;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.warcraft.Race;
+import com.b3dgs.warcraft.object.feature.EntityStats;
+import com.b3dgs.warcraft.object.feature.Warehouse;
+
+/**
+ * Registry of living warehouses, per race.
+ * <p>
+ * Warehouses are registered when added to handler, and unregistered on death or when removed from handler, so lookups
+ * never scan the handler. A race usually owns a few warehouses only, so nearest lookup is a short scan of its list.
+ * </p>
+ */
+public class WarehouseRegistry implements HandlerListener
+{
+    /**
+     * Get squared distance in tile between location and warehouse area.
+     * 
+     * @param warehouse The warehouse reference.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The squared distance in tile.
+     */
+    private static long getDistance(Tiled warehouse, int tx, int ty)
+    {
+        final int x = warehouse.getInTileX();
+        final int y = warehouse.getInTileY();
+        final long dx = Math.max(0, Math.max(x - tx, tx - (x + warehouse.getInTileWidth() - 1)));
+        final long dy = Math.max(0, Math.max(y - ty, ty - (y + warehouse.getInTileHeight() - 1)));
+        return dx * dx + dy * dy;
+    }
+
+    private final List<List<Warehouse>> warehouses = new ArrayList<>();
+
+    /**
+     * Create registry.
+     * 
+     * @param services The services reference.
+     */
+    public WarehouseRegistry(Services services)
+    {
+        super();
+
+        for (int i = 0; i < Race.values().length; i++)
+        {
+            warehouses.add(new ArrayList<>());
+        }
+        services.get(Handler.class).addListener(this);
+    }
+
+    /**
+     * Register warehouse.
+     * 
+     * @param warehouse The warehouse to add.
+     * @param race The warehouse owner.
+     */
+    public void add(Warehouse warehouse, Race race)
+    {
+        final List<Warehouse> owned = warehouses.get(race.ordinal());
+        if (!owned.contains(warehouse))
+        {
+            owned.add(warehouse);
+        }
+    }
+
+    /**
+     * Unregister warehouse.
+     * 
+     * @param warehouse The warehouse to remove.
+     * @param race The warehouse owner.
+     */
+    public void remove(Warehouse warehouse, Race race)
+    {
+        warehouses.get(race.ordinal()).remove(warehouse);
+    }
+
+    /**
+     * Get the closest warehouse of race.
+     * 
+     * @param race The owner race.
+     * @param from The location reference.
+     * @return The closest warehouse, <code>null</code> if none.
+     */
+    public Warehouse getClosest(Race race, Tiled from)
+    {
+        final List<Warehouse> owned = warehouses.get(race.ordinal());
+        final int n = owned.size();
+        if (n == 0)
+        {
+            return null;
+        }
+        if (n == 1)
+        {
+            return owned.get(0);
+        }
+
+        final int tx = from.getInTileX();
+        final int ty = from.getInTileY();
+        Warehouse closest = null;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < n; i++)
+        {
+            final Warehouse warehouse = owned.get(i);
+            final long distance = getDistance(warehouse, tx, ty);
+            if (distance < best)
+            {
+                best = distance;
+                closest = warehouse;
+            }
+        }
+        return closest;
+    }
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(Warehouse.class))
+        {
+            add(featurable.getFeature(Warehouse.class), featurable.getFeature(EntityStats.class).getRace());
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        if (featurable.hasFeature(Warehouse.class))
+        {
+            remove(featurable.getFeature(Warehouse.class), featurable.getFeature(EntityStats.class).getRace());
+        }
+    }
+}
\ No newline at end of file
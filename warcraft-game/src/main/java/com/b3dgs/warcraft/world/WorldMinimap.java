@@ -16,14 +16,15 @@
  */
 package com.b3dgs.warcraft.world;
 
+import java.util.Arrays;
+
 import com.b3dgs.lionengine.Resource;
+import com.b3dgs.lionengine.Updatable;
 import com.b3dgs.lionengine.game.feature.Camera;
-import com.b3dgs.lionengine.game.feature.Handler;
 import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.Minimap;
-import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
-import com.b3dgs.lionengine.game.feature.tile.map.transition.fog.FogOfWar;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.Graphics;
@@ -31,22 +32,50 @@ import com.b3dgs.lionengine.graphic.ImageBuffer;
 import com.b3dgs.lionengine.graphic.Renderable;
 import com.b3dgs.warcraft.Player;
 import com.b3dgs.warcraft.constant.Constant;
-import com.b3dgs.warcraft.object.EntityModel;
-import com.b3dgs.warcraft.object.feature.EntityStats;
 import com.b3dgs.warcraft.object.feature.Warehouse;
 
 /**
  * Handle world minimap data.
+ * <p>
+ * Shown entities are pushed by their model with {@link #update(int, boolean)}, referenced by their {@link EntityStore}
+ * slot, their area being read from the store and their color cached until their owner changes. Entities are drawn in
+ * a layer split in cells; only cells where an entity appeared, moved, changed owner or disappeared are redrawn, then
+ * the layer is drawn at once. Tiles are revealed on update from tiles changed by {@link Visibility}.
+ * </p>
  */
-public class WorldMinimap implements Resource, Renderable
+public class WorldMinimap implements Resource, Updatable, Renderable, EntityStoreListener
 {
+    /** Cell size in pixel (one pixel per tile). */
+    private static final int CELL_SIZE = 8;
+    /** Initial cell capacity. */
+    private static final int INITIAL_CELL = 4;
+    /** Transparent pixel. */
+    private static final int CLEAR = 0;
+
     private final Camera camera;
     private final MapTile map;
-    private final Handler handler;
     private final Player player;
     private final Minimap minimap;
-    private final FogOfWar fogOfWar;
+    private final Visibility visibility;
+    private final EntityStore store;
     private ImageBuffer buffer;
+    private ImageBuffer layer;
+
+    private int cellsWidth;
+    private int cellsHeight;
+    private int maxSize = 1;
+    private int[][] cells;
+    private int[] counts;
+    private boolean[] dirty;
+    private int[] dirtyCells;
+    private int dirtyCount;
+
+    /** Cell of each slot, {@link EntityStore#NONE} if not shown. */
+    private int[] cellIds = new int[0];
+    /** Color of each shown slot. */
+    private int[] colors = new int[0];
+    /** Race index of each shown slot, when its color was cached. */
+    private int[] owners = new int[0];
 
     /**
      * Create the world.
@@ -59,54 +88,288 @@ public class WorldMinimap implements Resource, Renderable
 
         camera = services.get(Camera.class);
         map = services.get(MapTile.class);
-        handler = services.get(Handler.class);
         player = services.get(Player.class);
-        fogOfWar = services.get(FogOfWar.class);
+        visibility = services.get(Visibility.class);
+        store = services.get(EntityStore.class);
+        store.addListener(this);
 
         minimap = new Minimap(map);
     }
 
     /**
-     * Draw entities.
+     * Update shown entity from its store location, registering it if needed.
      * 
-     * @param g The graphic output.
+     * @param slot The entity slot ({@link EntityStore#NONE} is ignored).
+     * @param moved <code>true</code> if location changed since last update, <code>false</code> else.
      */
-    private void drawEntities(Graphic g)
+    public void update(int slot, boolean moved)
     {
-        for (final EntityStats entity : handler.get(EntityStats.class))
+        if (slot == EntityStore.NONE)
+        {
+            return;
+        }
+        if (cells == null)
+        {
+            createCells();
+        }
+        if (slot >= cellIds.length)
+        {
+            grow();
+        }
+
+        if (cellIds[slot] == EntityStore.NONE)
+        {
+            add(slot);
+            return;
+        }
+        if (owners[slot] != store.getRace(slot))
+        {
+            cacheColor(slot);
+            markDirty(cellIds[slot], slot);
+        }
+        if (moved)
         {
-            final Pathfindable pathfindable = entity.getFeature(Pathfindable.class);
-            if (entity.getHealthPercent() > 0
-                && entity.getFeature(EntityModel.class).isVisible()
-                && fogOfWar.isVisible(pathfindable))
+            markDirty(cellIds[slot], slot);
+            final int cell = getCell(store.getInTileX(slot), store.getInTileY(slot));
+            if (cell != cellIds[slot])
             {
-                drawEntity(g, pathfindable, entity);
+                removeFromCell(cellIds[slot], slot);
+                addToCell(cell, slot);
+                cellIds[slot] = cell;
+                markDirty(cell, slot);
             }
         }
     }
 
     /**
-     * Draw entity.
+     * Remove entity from minimap.
      * 
-     * @param g The graphic output.
-     * @param entity The entity reference.
-     * @param stats The stats reference.
+     * @param slot The entity slot ({@link EntityStore#NONE} or not shown are ignored).
+     */
+    public void remove(int slot)
+    {
+        if (slot != EntityStore.NONE && slot < cellIds.length && cellIds[slot] != EntityStore.NONE)
+        {
+            markDirty(cellIds[slot], slot);
+            removeFromCell(cellIds[slot], slot);
+            cellIds[slot] = EntityStore.NONE;
+        }
+    }
+
+    /**
+     * Register entity and cache its color.
+     * 
+     * @param slot The entity slot.
+     */
+    private void add(int slot)
+    {
+        maxSize = Math.max(maxSize, Math.max(store.getInTileWidth(slot), store.getInTileHeight(slot)));
+        cacheColor(slot);
+
+        final int cell = getCell(store.getInTileX(slot), store.getInTileY(slot));
+        cellIds[slot] = cell;
+        addToCell(cell, slot);
+        markDirty(cell, slot);
+    }
+
+    /**
+     * Cache entity color from its current owner.
+     * 
+     * @param slot The entity slot.
      */
-    private void drawEntity(Graphic g, Pathfindable entity, EntityStats stats)
+    private void cacheColor(int slot)
     {
-        if (player.owns(entity) && entity.hasFeature(Warehouse.class))
+        final Transformable transformable = store.getTransformable(slot);
+        if (player.owns(transformable) && transformable.hasFeature(Warehouse.class))
         {
-            g.setColor(Constant.COLOR_WAREHOUSE);
+            colors[slot] = Constant.COLOR_WAREHOUSE.getRgba();
         }
         else
         {
-            g.setColor(player.getColor(entity));
+            colors[slot] = player.getColor(transformable).getRgba();
+        }
+        owners[slot] = store.getRace(slot);
+    }
+
+    /**
+     * Create cells from map size.
+     */
+    private void createCells()
+    {
+        cellsWidth = Math.max(1, (map.getInTileWidth() + CELL_SIZE - 1) / CELL_SIZE);
+        cellsHeight = Math.max(1, (map.getInTileHeight() + CELL_SIZE - 1) / CELL_SIZE);
+
+        final int total = cellsWidth * cellsHeight;
+        cells = new int[total][];
+        counts = new int[total];
+        dirty = new boolean[total];
+        dirtyCells = new int[total];
+        for (int c = 0; c < total; c++)
+        {
+            cells[c] = new int[INITIAL_CELL];
+        }
+    }
+
+    /**
+     * Grow slot cells, colors and owners to store capacity.
+     */
+    private void grow()
+    {
+        final int old = cellIds.length;
+        final int capacity = store.getCapacity();
+        cellIds = Arrays.copyOf(cellIds, capacity);
+        Arrays.fill(cellIds, old, capacity, EntityStore.NONE);
+        colors = Arrays.copyOf(colors, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+    }
+
+    /**
+     * Get cell index of tile, clamped to map.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The cell index.
+     */
+    private int getCell(int tx, int ty)
+    {
+        final int cx = Math.min(cellsWidth - 1, Math.max(0, tx / CELL_SIZE));
+        final int cy = Math.min(cellsHeight - 1, Math.max(0, ty / CELL_SIZE));
+        return cx + cy * cellsWidth;
+    }
+
+    /**
+     * Add slot to cell.
+     * 
+     * @param cell The cell index.
+     * @param slot The slot to add.
+     */
+    private void addToCell(int cell, int slot)
+    {
+        final int count = counts[cell];
+        if (count == cells[cell].length)
+        {
+            cells[cell] = Arrays.copyOf(cells[cell], count * 2);
+        }
+        cells[cell][count] = slot;
+        counts[cell] = count + 1;
+    }
+
+    /**
+     * Remove slot from cell.
+     * 
+     * @param cell The cell index.
+     * @param slot The slot to remove.
+     */
+    private void removeFromCell(int cell, int slot)
+    {
+        final int[] content = cells[cell];
+        final int last = counts[cell] - 1;
+        for (int i = 0; i <= last; i++)
+        {
+            if (content[i] == slot)
+            {
+                content[i] = content[last];
+                counts[cell] = last;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Mark as dirty all cells which may be covered by entity area, starting anywhere in its cell.
+     * 
+     * @param cell The entity cell.
+     * @param slot The entity slot.
+     */
+    private void markDirty(int cell, int slot)
+    {
+        final int minCx = cell % cellsWidth;
+        final int minCy = cell / cellsWidth;
+        final int maxCx = Math.min(cellsWidth - 1, minCx + (store.getInTileWidth(slot) + CELL_SIZE - 2) / CELL_SIZE);
+        final int maxCy = Math.min(cellsHeight - 1, minCy + (store.getInTileHeight(slot) + CELL_SIZE - 2) / CELL_SIZE);
+        for (int cy = minCy; cy <= maxCy; cy++)
+        {
+            for (int cx = minCx; cx <= maxCx; cx++)
+            {
+                final int covered = cx + cy * cellsWidth;
+                if (!dirty[covered])
+                {
+                    dirty[covered] = true;
+                    dirtyCells[dirtyCount++] = covered;
+                }
+            }
+        }
+    }
+
+    /**
+     * Redraw dirty cells in layer.
+     */
+    private void redrawDirty()
+    {
+        for (int i = 0; i < dirtyCount; i++)
+        {
+            final int cell = dirtyCells[i];
+            redraw(cell % cellsWidth, cell / cellsWidth);
+            dirty[cell] = false;
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * Redraw a cell, including entities from previous cells overlapping it.
+     * 
+     * @param cx The horizontal cell index.
+     * @param cy The vertical cell index.
+     */
+    private void redraw(int cx, int cy)
+    {
+        final int x1 = cx * CELL_SIZE;
+        final int y1 = cy * CELL_SIZE;
+        final int x2 = Math.min(map.getInTileWidth(), x1 + CELL_SIZE);
+        final int y2 = Math.min(map.getInTileHeight(), y1 + CELL_SIZE);
+        fill(x1, y1, x2, y2, CLEAR);
+
+        final int reach = (maxSize + CELL_SIZE - 2) / CELL_SIZE;
+        for (int ocy = Math.max(0, cy - reach); ocy <= cy; ocy++)
+        {
+            for (int ocx = Math.max(0, cx - reach); ocx <= cx; ocx++)
+            {
+                final int other = ocx + ocy * cellsWidth;
+                final int[] content = cells[other];
+                for (int j = 0; j < counts[other]; j++)
+                {
+                    final int slot = content[j];
+                    final int tx = store.getInTileX(slot);
+                    final int ty = store.getInTileY(slot);
+                    fill(Math.max(x1, tx),
+                         Math.max(y1, ty),
+                         Math.min(x2, tx + store.getInTileWidth(slot)),
+                         Math.min(y2, ty + store.getInTileHeight(slot)),
+                         colors[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill tiles area of layer.
+     * 
+     * @param x1 The horizontal tile start (included).
+     * @param y1 The vertical tile start (included).
+     * @param x2 The horizontal tile end (excluded).
+     * @param y2 The vertical tile end (excluded).
+     * @param rgb The color value.
+     */
+    private void fill(int x1, int y1, int x2, int y2, int rgb)
+    {
+        final int height = map.getInTileHeight();
+        for (int ty = Math.max(0, y1); ty < y2; ty++)
+        {
+            for (int tx = Math.max(0, x1); tx < x2; tx++)
+            {
+                layer.setRgb(tx, height - ty - 1, rgb);
+            }
         }
-        g.drawRect(getX(entity.getInTileX()),
-                   getY(entity.getInTileY(), entity.getInTileHeight()),
-                   entity.getInTileWidth(),
-                   entity.getInTileHeight(),
-                   true);
     }
 
     /**
@@ -121,26 +384,26 @@ public class WorldMinimap implements Resource, Renderable
     }
 
     /**
-     * Get horizontal on minimap.
+     * Reveal tile if visited by player.
      * 
-     * @param tx The location in tile to get.
-     * @return The location on minimap.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
      */
-    private int getX(int tx)
+    private void reveal(int tx, int ty)
     {
-        return Constant.MINIMAP_X + tx;
+        if (visibility.isVisited(player.getRace(), tx, ty))
+        {
+            buffer.setRgb(tx, map.getInTileHeight() - ty - 1, CLEAR);
+        }
     }
 
-    /**
-     * Get vertical on minimap.
-     * 
-     * @param ty The location in tile to get.
-     * @param th The height.
-     * @return The location on minimap.
-     */
-    private int getY(int ty, int th)
+    @Override
+    public void update(double extrp)
     {
-        return Constant.MINIMAP_Y - ty + map.getInTileHeight() - th;
+        if (buffer != null)
+        {
+            visibility.forEachChanged(player.getRace(), this::reveal);
+        }
     }
 
     @Override
@@ -148,7 +411,11 @@ public class WorldMinimap implements Resource, Renderable
     {
         minimap.render(g);
         g.drawImage(buffer, Constant.MINIMAP_X, Constant.MINIMAP_Y);
-        drawEntities(g);
+        if (dirtyCount > 0)
+        {
+            redrawDirty();
+        }
+        g.drawImage(layer, Constant.MINIMAP_X, Constant.MINIMAP_Y);
         drawFov(g);
     }
 
@@ -166,7 +433,14 @@ public class WorldMinimap implements Resource, Renderable
         g.drawRect(0, 0, buffer.getWidth(), buffer.getHeight(), true);
         g.dispose();
 
-        fogOfWar.addListener((tx, ty) -> buffer.setRgb(tx, map.getInTileHeight() - ty - 1, 0));
+        layer = Graphics.createImageBuffer(map.getInTileWidth(), map.getInTileHeight(), ColorRgba.TRANSPARENT);
+        fill(0, 0, map.getInTileWidth(), map.getInTileHeight(), CLEAR);
+    }
+
+    @Override
+    public void notifySlotReleased(int slot)
+    {
+        remove(slot);
     }
 
     @Override
@@ -179,5 +453,13 @@ public class WorldMinimap implements Resource, Renderable
     public void dispose()
     {
         minimap.dispose();
+        if (buffer != null)
+        {
+            buffer.dispose();
+        }
+        if (layer != null)
+        {
+            layer.dispose();
+        }
     }
 }
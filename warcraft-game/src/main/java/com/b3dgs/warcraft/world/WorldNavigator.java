@@ -16,9 +16,6 @@
  */
 package com.b3dgs.warcraft.world;
 
-import java.util.List;
-
-import com.b3dgs.lionengine.Tick;
 import com.b3dgs.lionengine.Updatable;
 import com.b3dgs.lionengine.UtilMath;
 import com.b3dgs.lionengine.game.Cursor;
@@ -26,18 +23,16 @@ import com.b3dgs.lionengine.game.feature.Camera;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.Handler;
 import com.b3dgs.lionengine.game.feature.Services;
-import com.b3dgs.lionengine.game.feature.collidable.selector.Selectable;
 import com.b3dgs.lionengine.game.feature.collidable.selector.Selector;
 import com.b3dgs.lionengine.game.feature.collidable.selector.SelectorModel;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
-import com.b3dgs.lionengine.game.feature.tile.map.transition.fog.FogOfWar;
 import com.b3dgs.lionengine.io.DeviceController;
 import com.b3dgs.warcraft.DeviceMapping;
+import com.b3dgs.warcraft.Player;
 import com.b3dgs.warcraft.constant.Constant;
 import com.b3dgs.warcraft.object.EntityModel;
 import com.b3dgs.warcraft.object.feature.EntityStats;
-import com.b3dgs.warcraft.object.feature.RightClickHandler;
 
 /**
  * World navigator.
@@ -46,18 +41,19 @@ public class WorldNavigator implements Updatable
 {
     private static final int NAVIGATION_TICK = 3;
 
-    private final Tick navigationDelay = new Tick();
-
     private final Camera camera;
     private final Cursor cursor;
     private final DeviceController device;
     private final Handler handler;
     private final MapTile map;
     private final MapTilePath mapPath;
-    private final FogOfWar fogOfWar;
+    private final Player player;
+    private final Visibility visibility;
     private final Selector selector;
     private final SelectorModel selectorModel;
+    private final Commands commands;
 
+    private boolean navigate;
     private boolean selectorEnabled;
     private boolean selectorBackup;
 
@@ -76,12 +72,16 @@ public class WorldNavigator implements Updatable
         handler = services.get(Handler.class);
         map = services.get(MapTile.class);
         mapPath = map.getFeature(MapTilePath.class);
-        fogOfWar = map.getFeature(FogOfWar.class);
+        player = services.get(Player.class);
+        visibility = services.get(Visibility.class);
         selector = services.get(Selector.class);
+        commands = services.get(Commands.class);
 
         selectorModel = selector.getFeature(SelectorModel.class);
         selectorEnabled = selectorModel.isEnabled();
-        navigationDelay.start();
+
+        final Scheduler scheduler = services.get(Scheduler.class);
+        scheduler.repeat(scheduler.create(() -> navigate = true), NAVIGATION_TICK, NAVIGATION_TICK);
     }
 
     /**
@@ -166,15 +166,13 @@ public class WorldNavigator implements Updatable
     @Override
     public void update(double extrp)
     {
-        navigationDelay.update(extrp);
-
-        if (navigationDelay.elapsed(NAVIGATION_TICK))
+        if (navigate)
         {
             updateNavigationPointer(extrp);
             camera.moveLocation(extrp,
                                 device.getHorizontalDirection() * map.getTileWidth(),
                                 device.getVerticalDirection() * map.getTileHeight());
-            navigationDelay.restart();
+            navigate = false;
         }
 
         updateNavigationMinimap(extrp);
@@ -206,7 +204,7 @@ public class WorldNavigator implements Updatable
             final int tx = map.getInTileX(cursor);
             final int ty = map.getInTileY(cursor);
 
-            if (!cursor.isPushed() && fogOfWar.isVisited(tx, ty) && !fogOfWar.isFogged(tx, ty) && isValidEntity(tx, ty))
+            if (!cursor.isPushed() && visibility.isVisible(player.getRace(), tx, ty) && isValidEntity(tx, ty))
             {
                 cursor.setRenderingOffset(-5, -5);
                 cursor.setSurfaceId(Constant.CURSOR_ID_OVER);
@@ -245,15 +243,9 @@ public class WorldNavigator implements Updatable
      */
     private void checkRightClick()
     {
-        final List<Selectable> selection = selector.getSelection();
-        final int n = selection.size();
-        for (int i = 0; i < n; i++)
-        {
-            final Selectable selectable = selection.get(i);
-            if (selectable.hasFeature(RightClickHandler.class))
-            {
-                selectable.getFeature(RightClickHandler.class).execute();
-            }
-        }
+        commands.issue(CommandType.RIGHT_CLICK,
+                       selector.getSelection(),
+                       map.getInTileX(cursor),
+                       map.getInTileY(cursor));
     }
 }
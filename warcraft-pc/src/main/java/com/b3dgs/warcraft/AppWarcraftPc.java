@@ -16,6 +16,8 @@
  */
 package com.b3dgs.warcraft;
 
+import java.io.File;
+
 import com.b3dgs.lionengine.Config;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Medias;
@@ -38,19 +40,26 @@ public final class AppWarcraftPc
     /**
      * Main function.
      * 
-     * @param args The arguments (none).
+     * @param args The arguments (optional file where played commands are saved on exit).
      */
     public static void main(String[] args) // CHECKSTYLE IGNORE LINE: TrailingComment|UncommentedMain
     {
         EngineAwt.start(Constant.PROGRAM_NAME, Constant.PROGRAM_VERSION, AppWarcraftPc.class);
-        Loader.start(Config.windowed(DEFAULT_RESOLUTION,
-                                     Medias.create("icon-16.png"),
-                                     Medias.create("icon-32.png"),
-                                     Medias.create("icon-48.png"),
-                                     Medias.create("icon-64.png"),
-                                     Medias.create("icon-128.png"),
-                                     Medias.create("icon-256.png")),
-                     Loading.class);
+        final Config config = Config.windowed(DEFAULT_RESOLUTION,
+                                              Medias.create("icon-16.png"),
+                                              Medias.create("icon-32.png"),
+                                              Medias.create("icon-48.png"),
+                                              Medias.create("icon-64.png"),
+                                              Medias.create("icon-128.png"),
+                                              Medias.create("icon-256.png"));
+        if (args.length > 0)
+        {
+            Loader.start(config, Loading.class, Medias.get(new File(args[0]).getAbsoluteFile()));
+        }
+        else
+        {
+            Loader.start(config, Loading.class);
+        }
         AudioFactory.addFormat(new WavFormat());
         AudioFactory.addFormat(new AdlMidiFormat());
         AdlMidiFormat.setDefaultBank(Constant.SOUND_BANK_ID);
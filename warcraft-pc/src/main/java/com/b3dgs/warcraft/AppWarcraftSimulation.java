@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2013-2022 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.b3dgs.warcraft;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import com.b3dgs.lionengine.Engine;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Medias;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.audio.AudioFactory;
+import com.b3dgs.lionengine.audio.wav.WavFormat;
+import com.b3dgs.lionengine.awt.graphic.EngineAwt;
+import com.b3dgs.warcraft.constant.Constant;
+import com.b3dgs.warcraft.constant.Extension;
+
+/**
+ * Headless simulation starts here.
+ * <p>
+ * Arguments are optional: number of frames to simulate, then random seed, then commands log to replay (relative to
+ * resources, recorded seed is used instead), then expected state hash after replay.
+ * </p>
+ * <p>
+ * Using {@link #VERIFY} instead of commands log checks determinism: frames are recorded, then replayed by another
+ * simulation in the same process, which fails if its state hash differs from the recorded one. Recorded commands are
+ * stored in a temporary file.
+ * </p>
+ */
+public final class AppWarcraftSimulation
+{
+    /** Default simulated frames (one hour at native rate). */
+    private static final int DEFAULT_FRAMES = 60 * 60 * 60;
+    /** Default random seed. */
+    private static final long DEFAULT_SEED = 0L;
+    /** Nano to milli. */
+    private static final double NANO_TO_MILLI = 1_000_000.0;
+    /** Determinism check argument. */
+    private static final String VERIFY = "verify";
+    /** Hash radix. */
+    private static final int HEX = 16;
+    /** Error replay diverged. */
+    private static final String ERROR_DIVERGED = "Replay diverged from recorded state: ";
+
+    /**
+     * Replay recorded commands in another simulation, and compare its state hash with the recorded one.
+     * 
+     * @param recorded The recorded simulation.
+     * @param frames The number of frames to replay.
+     * @throws LionEngineException If replay failed or diverged.
+     */
+    private static void verify(Simulation recorded, int frames)
+    {
+        final File file;
+        try
+        {
+            file = File.createTempFile(VERIFY, Extension.REPLAY);
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception);
+        }
+        file.deleteOnExit();
+
+        final Media replay = Medias.get(file);
+        recorded.saveReplay(replay);
+
+        final Simulation simulation = new Simulation(DEFAULT_SEED);
+        simulation.replay(Level.FOREST, replay);
+        simulation.run(frames);
+
+        final long hash = recorded.getStateHash();
+        if (simulation.getStateHash() != hash)
+        {
+            throw new LionEngineException(ERROR_DIVERGED + Long.toHexString(hash));
+        }
+    }
+
+    /**
+     * Main function.
+     * 
+     * @param args The arguments (frames, seed, replay or verify, expected hash).
+     */
+    public static void main(String[] args) // CHECKSTYLE IGNORE LINE: TrailingComment|UncommentedMain
+    {
+        System.setProperty("java.awt.headless", String.valueOf(true));
+
+        final int frames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+
+        EngineAwt.start(Constant.PROGRAM_NAME, Constant.PROGRAM_VERSION, AppWarcraftSimulation.class);
+        AudioFactory.addFormat(new WavFormat());
+
+        final boolean verify = args.length > 2 && VERIFY.equals(args[2]);
+        final Simulation simulation = new Simulation(seed);
+        if (args.length > 2 && !verify)
+        {
+            simulation.replay(Level.FOREST, Medias.create(args[2]));
+        }
+        else
+        {
+            simulation.load(Level.FOREST);
+        }
+
+        final long start = System.nanoTime();
+        simulation.run(frames);
+        final double elapsed = (System.nanoTime() - start) / NANO_TO_MILLI;
+
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "Simulated %d frames in %.1f ms (%.1f frames/s)",
+                                   Long.valueOf(simulation.getFrames()),
+                                   Double.valueOf(elapsed),
+                                   Double.valueOf(simulation.getFrames() * 1000.0 / elapsed)));
+
+        final long hash = simulation.getStateHash();
+        Verbose.info("State hash: " + Long.toHexString(hash));
+
+        if (verify)
+        {
+            try
+            {
+                verify(simulation, frames);
+            }
+            finally
+            {
+                Engine.terminate();
+            }
+            Verbose.info("Replay matches recorded state");
+        }
+        else
+        {
+            Engine.terminate();
+            if (args.length > 3 && hash != Long.parseUnsignedLong(args[3], HEX))
+            {
+                throw new LionEngineException(ERROR_DIVERGED + args[3]);
+            }
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private AppWarcraftSimulation()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}